@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+# Сравнение обычного (servlet + RestTemplate) и реактивного (WebFlux + WebClient) режимов гейтвея.
+# Перед запуском: mvn -B package -DskipTests в корне проекта. Нагрузку дает wrk, а без него - load.py рядом.
+# Параметры нагрузки задаются переменными окружения THREADS, CONNECTIONS, DURATION (в секундах: 30s).
+# Кэш ответов гейтвея отключается: реактивный режим его не использует, и замер сравнивал бы кэш с сервером.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+SERVER_JAR="$ROOT/server/target/shareit-server-0.0.1-SNAPSHOT.jar"
+GATEWAY_JAR="$ROOT/gateway/target/shareit-gateway-0.0.1-SNAPSHOT.jar"
+THREADS="${THREADS:-4}"
+CONNECTIONS="${CONNECTIONS:-1000}"
+DURATION="${DURATION:-30s}"
+PIDS=()
+BENCH_DIR="$(cd "$(dirname "$0")" && pwd)"
+
+load() {
+    if command -v wrk > /dev/null; then
+        wrk -t"$THREADS" -c"$CONNECTIONS" -d"$2" --latency "$1"
+    else
+        python3 "$BENCH_DIR/load.py" "$1" "$CONNECTIONS" "${2%s}"
+    fi
+}
+
+cleanup() {
+    for pid in "${PIDS[@]}"; do
+        kill "$pid" 2>/dev/null || true
+    done
+}
+trap cleanup EXIT
+
+wait_for() {
+    for _ in $(seq 1 60); do
+        if curl -s -o /dev/null "$1"; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "Не дождались $1" >&2
+    exit 1
+}
+
+# Сервер на H2, чтобы замер не зависел от внешней базы
+java -jar "$SERVER_JAR" --spring.profiles.active=test > /tmp/shareit-bench-server.log 2>&1 &
+PIDS+=($!)
+wait_for http://localhost:9090/users
+curl -s -o /dev/null -X POST http://localhost:9090/users \
+    -H 'Content-Type: application/json' -d '{"name":"bench","email":"bench@test.ru"}'
+
+for mode in servlet reactive; do
+    profile=""
+    if [ "$mode" = "reactive" ]; then
+        profile="--spring.profiles.active=reactive"
+    fi
+    java -jar "$GATEWAY_JAR" $profile \
+        --logging.level.org.springframework.web.client.RestTemplate=INFO \
+        --logging.level.org.apache.http=INFO \
+        --logging.level.httpclient.wire=INFO \
+        --logging.level.ru.practicum.shareit=WARN \
+        --shareit-gateway.cache.enabled=false > "/tmp/shareit-bench-gateway-$mode.log" 2>&1 &
+    gateway_pid=$!
+    PIDS+=("$gateway_pid")
+    wait_for http://localhost:8080/users/1
+
+    echo "=== $mode: $CONNECTIONS соединений, $DURATION"
+    load http://localhost:8080/users/1 10s > /dev/null
+    load http://localhost:8080/users/1 "$DURATION"
+    echo -n "Потоков JVM гейтвея: "
+    curl -s http://localhost:8080/actuator/metrics/jvm.threads.live | sed 's/.*"value":\([0-9.]*\).*/\1/'
+    echo
+
+    kill "$gateway_pid"
+    wait "$gateway_pid" 2>/dev/null || true
+done
@@ -0,0 +1,64 @@
+#!/usr/bin/env python3
+# Простая замена wrk для машин, где его нет: N соединений keep-alive шлют GET по кругу заданное время.
+# Использование: load.py URL CONNECTIONS DURATION_SECONDS
+import asyncio
+import sys
+import time
+from urllib.parse import urlsplit
+
+
+async def worker(host, port, request, deadline, latencies, errors):
+    try:
+        reader, writer = await asyncio.open_connection(host, port)
+    except OSError:
+        errors[0] += 1
+        return
+    try:
+        while time.monotonic() < deadline:
+            started = time.monotonic()
+            writer.write(request)
+            await writer.drain()
+            status = await reader.readline()
+            length = 0
+            while True:
+                line = await reader.readline()
+                if line in (b"\r\n", b""):
+                    break
+                name, _, value = line.decode("latin-1").partition(":")
+                if name.strip().lower() == "content-length":
+                    length = int(value.strip())
+            if length:
+                await reader.readexactly(length)
+            if not status.startswith(b"HTTP/1.1 2"):
+                errors[0] += 1
+            latencies.append(time.monotonic() - started)
+    except (OSError, asyncio.IncompleteReadError):
+        errors[0] += 1
+    finally:
+        writer.close()
+
+
+async def main(url, connections, duration):
+    parts = urlsplit(url)
+    path = parts.path + ("?" + parts.query if parts.query else "")
+    request = (f"GET {path} HTTP/1.1\r\nHost: {parts.netloc}\r\n"
+               f"X-Sharer-User-Id: 1\r\nAccept: application/json\r\n\r\n").encode()
+    latencies, errors = [], [0]
+    deadline = time.monotonic() + duration
+    await asyncio.gather(*(worker(parts.hostname, parts.port, request, deadline, latencies, errors)
+                           for _ in range(connections)))
+    latencies.sort()
+    if not latencies:
+        print("Нет успешных запросов")
+        return
+
+    def percentile(p):
+        return latencies[min(len(latencies) - 1, int(len(latencies) * p))] * 1000
+
+    print(f"Requests/sec: {len(latencies) / duration:.0f}")
+    print(f"Latency p50: {percentile(0.5):.1f} ms, p90: {percentile(0.9):.1f} ms, p99: {percentile(0.99):.1f} ms")
+    print(f"Errors: {errors[0]}")
+
+
+if __name__ == "__main__":
+    asyncio.run(main(sys.argv[1], int(sys.argv[2]), float(sys.argv[3])))
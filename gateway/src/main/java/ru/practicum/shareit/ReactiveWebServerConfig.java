@@ -0,0 +1,20 @@
+package ru.practicum.shareit;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * В реактивном режиме запускаем Netty: иначе Spring Boot выберет Tomcat, который тоже есть в зависимостях,
+ * и запросы будут обслуживаться пулом потоков сервлет-контейнера, а не циклом событий.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveWebServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
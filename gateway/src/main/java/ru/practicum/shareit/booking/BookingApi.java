@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.NewBookingDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Маршруты и проверки запросов бронирований, общие для обычного и реактивного контроллеров.
+ * R - тип ответа: ResponseEntity для обычного режима и Mono с ResponseEntity для реактивного.
+ */
+@RequestMapping(path = "/bookings")
+public interface BookingApi<R> {
+    @PostMapping
+    R addBooking(@RequestBody @Valid NewBookingDto newBookingDto, @RequestHeader("X-Sharer-User-Id") Long bookerId);
+
+    // Каждая позиция проверяется так же, как одиночное бронирование; итог по позициям возвращает сервер
+    @PostMapping("/batch")
+    R addBookings(@RequestBody @NotEmpty @Size(max = 100) List<@Valid NewBookingDto> newBookingDtos,
+                  @RequestHeader("X-Sharer-User-Id") Long bookerId);
+
+    @PatchMapping("/approve")
+    R approveBookings(@RequestBody @NotEmpty @Size(max = 100) List<@NotNull @Positive Long> bookingIds,
+                      @RequestParam boolean approved,
+                      @RequestHeader("X-Sharer-User-Id") Long ownerId);
+
+    @PatchMapping("/{bookingId}")
+    R approveBooking(@PathVariable long bookingId, @RequestParam boolean approved,
+                     @RequestHeader("X-Sharer-User-Id") Long ownerId);
+
+    @GetMapping("/summary")
+    R getBookerSummary(@RequestHeader("X-Sharer-User-Id") Long bookerId);
+
+    @GetMapping("/owner/summary")
+    R getOwnerSummary(@RequestHeader("X-Sharer-User-Id") Long ownerId);
+
+    @GetMapping("/{bookingId}")
+    R getBookingInfo(@PathVariable long bookingId, @RequestHeader("X-Sharer-User-Id") Long userId);
+
+    @GetMapping
+    R getBookerBookings(@RequestHeader("X-Sharer-User-Id") Long bookerId,
+                        @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+                        @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                        @Positive @RequestParam(defaultValue = "10") int size,
+                        @RequestParam(required = false) String cursor,
+                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
+
+    @GetMapping("/owner")
+    R getOwnerBookings(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                       @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+                       @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                       @Positive @RequestParam(defaultValue = "10") int size,
+                       @RequestParam(required = false) String cursor,
+                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
+}
@@ -3,27 +3,34 @@ package ru.practicum.shareit.booking;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
+@Profile("!reactive")
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory, GatewayResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                responseCache
         );
     }
 
@@ -31,6 +38,10 @@ public class BookingClient extends BaseClient {
         return post("", bookerId, newBookingDto);
     }
 
+    public ResponseEntity<Object> addBookings(List<NewBookingDto> newBookingDtos, Long bookerId) {
+        return post("/batch", bookerId, newBookingDtos);
+    }
+
     public ResponseEntity<Object> approveBooking(long bookingId, boolean approved, Long ownerId) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
@@ -38,6 +49,21 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", ownerId, parameters, null);
     }
 
+    public ResponseEntity<Object> approveBookings(List<Long> bookingIds, boolean approved, Long ownerId) {
+        Map<String, Object> parameters = Map.of(
+                "approved", approved
+        );
+        return patch("/approve?approved={approved}", ownerId, parameters, bookingIds);
+    }
+
+    public ResponseEntity<Object> getBookerSummary(Long bookerId) {
+        return get("/summary", bookerId);
+    }
+
+    public ResponseEntity<Object> getOwnerSummary(Long ownerId) {
+        return get("/owner/summary", ownerId);
+    }
+
     public ResponseEntity<Object> getBookingInfo(long bookingId, Long userId) {
         return get("/" + bookingId, userId);
     }
@@ -45,24 +71,35 @@ public class BookingClient extends BaseClient {
     public ResponseEntity<Object> getBookerBookings(Long bookerId,
                                                     BookingState state,
                                                     int from,
-                                                    int size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", bookerId, parameters);
+                                                    int size,
+                                                    String cursor,
+                                                    String ifNoneMatch) {
+        return get(withCursor("?state={state}&from={from}&size={size}", cursor), bookerId,
+                listParameters(state, from, size, cursor), ifNoneMatch);
     }
 
     public ResponseEntity<Object> getOwnerBookings(Long ownerId,
                                                    BookingState state,
                                                    int from,
-                                                   int size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
+                                                   int size,
+                                                   String cursor,
+                                                   String ifNoneMatch) {
+        return get(withCursor("/owner?state={state}&from={from}&size={size}", cursor), ownerId,
+                listParameters(state, from, size, cursor), ifNoneMatch);
+    }
+
+    static String withCursor(String path, String cursor) {
+        return cursor == null ? path : path + "&cursor={cursor}";
+    }
+
+    static Map<String, Object> listParameters(BookingState state, int from, int size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
     }
 }
@@ -2,74 +2,80 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
-import ru.practicum.shareit.exception.ObjectNotValidException;
 
-import javax.validation.Valid;
-import javax.validation.constraints.Positive;
-import javax.validation.constraints.PositiveOrZero;
-import java.time.LocalDateTime;
+import java.util.List;
 
 @Controller
-@RequestMapping(path = "/bookings")
+@Profile("!reactive")
 @RequiredArgsConstructor
 @Slf4j
 @Validated
-public class BookingController {
+public class BookingController implements BookingApi<ResponseEntity<Object>> {
     private final BookingClient bookingClient;
 
-    @PostMapping
-    public ResponseEntity<Object> addBooking(@RequestBody @Valid NewBookingDto newBookingDto, @RequestHeader("X-Sharer-User-Id") Long bookerId) {
-        validateBookingPeriod(newBookingDto);
+    @Override
+    public ResponseEntity<Object> addBooking(NewBookingDto newBookingDto, Long bookerId) {
+        BookingValidator.validateBookingPeriod(newBookingDto);
         log.info("Add booking with userId={}", bookerId);
         return bookingClient.addBooking(newBookingDto, bookerId);
     }
 
-    @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(@PathVariable long bookingId, @RequestParam boolean approved,
-                                                 @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+    @Override
+    public ResponseEntity<Object> addBookings(List<NewBookingDto> newBookingDtos, Long bookerId) {
+        newBookingDtos.forEach(BookingValidator::validateBookingPeriod);
+        log.info("Add {} bookings with userId={}", newBookingDtos.size(), bookerId);
+        return bookingClient.addBookings(newBookingDtos, bookerId);
+    }
+
+    @Override
+    public ResponseEntity<Object> approveBookings(List<Long> bookingIds, boolean approved, Long ownerId) {
+        log.info("Patch {} bookings with ownerId={}, approved={}", bookingIds.size(), ownerId, approved);
+        return bookingClient.approveBookings(bookingIds, approved, ownerId);
+    }
+
+    @Override
+    public ResponseEntity<Object> approveBooking(long bookingId, boolean approved, Long ownerId) {
         log.info("Patch booking with ownerId={}, bookingId={}", ownerId, bookingId);
         return bookingClient.approveBooking(bookingId, approved, ownerId);
     }
 
-    @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBookingInfo(@PathVariable long bookingId, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Get booking with userId={}", userId);
-        return bookingClient.getBookingInfo(bookingId, userId);
+    @Override
+    public ResponseEntity<Object> getBookerSummary(Long bookerId) {
+        log.info("Get booking summary with bookerId={}", bookerId);
+        return bookingClient.getBookerSummary(bookerId);
+    }
+
+    @Override
+    public ResponseEntity<Object> getOwnerSummary(Long ownerId) {
+        log.info("Get booking summary with ownerId={}", ownerId);
+        return bookingClient.getOwnerSummary(ownerId);
     }
 
-    @GetMapping
-    public ResponseEntity<Object> getBookerBookings(@RequestHeader("X-Sharer-User-Id") Long bookerId,
-                                                    @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
-                                                    @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                    @Positive @RequestParam(defaultValue = "10") int size) {
-        BookingState state = BookingState.from(stateParam)
-                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, bookerId={}, from={}, size={}", stateParam, bookerId, from, size);
-        return bookingClient.getBookerBookings(bookerId, state, from, size);
+    @Override
+    public ResponseEntity<Object> getBookingInfo(long bookingId, Long userId) {
+        log.info("Get booking with userId={}", userId);
+        return bookingClient.getBookingInfo(bookingId, userId);
     }
 
-    @GetMapping("/owner")
-    public ResponseEntity<Object> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                                   @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
-                                                   @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                   @Positive @RequestParam(defaultValue = "10") int size) {
-        BookingState state = BookingState.from(stateParam)
-                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, ownerId={}, from={}, size={}", stateParam, ownerId, from, size);
-        return bookingClient.getOwnerBookings(ownerId, state, from, size);
+    @Override
+    public ResponseEntity<Object> getBookerBookings(Long bookerId, String stateParam, int from, int size, String cursor,
+                                                    String ifNoneMatch) {
+        BookingState state = BookingValidator.parseState(stateParam);
+        log.info("Get booking with state {}, bookerId={}, from={}, size={}, cursor={}", stateParam, bookerId, from, size, cursor);
+        return bookingClient.getBookerBookings(bookerId, state, from, size, cursor, ifNoneMatch);
     }
 
-    private void validateBookingPeriod(NewBookingDto newBookingDto) {
-        LocalDateTime start = newBookingDto.getStart();
-        LocalDateTime end = newBookingDto.getEnd();
-        if (!start.isBefore(end)) {
-            throw new ObjectNotValidException("Дата начала не может быть равна или позже даты конца");
-        }
+    @Override
+    public ResponseEntity<Object> getOwnerBookings(Long ownerId, String stateParam, int from, int size, String cursor,
+                                                   String ifNoneMatch) {
+        BookingState state = BookingValidator.parseState(stateParam);
+        log.info("Get booking with state {}, ownerId={}, from={}, size={}, cursor={}", stateParam, ownerId, from, size, cursor);
+        return bookingClient.getOwnerBookings(ownerId, state, from, size, cursor, ifNoneMatch);
     }
 }
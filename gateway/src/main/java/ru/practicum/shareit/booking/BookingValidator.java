@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.NewBookingDto;
+import ru.practicum.shareit.exception.ObjectNotValidException;
+
+import java.time.LocalDateTime;
+
+// Проверки запросов бронирований, общие для обычного и реактивного контроллеров
+public class BookingValidator {
+    public static void validateBookingPeriod(NewBookingDto newBookingDto) {
+        LocalDateTime start = newBookingDto.getStart();
+        LocalDateTime end = newBookingDto.getEnd();
+        if (!start.isBefore(end)) {
+            throw new ObjectNotValidException("Дата начала не может быть равна или позже даты конца");
+        }
+    }
+
+    public static BookingState parseState(String stateParam) {
+        return BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+    }
+}
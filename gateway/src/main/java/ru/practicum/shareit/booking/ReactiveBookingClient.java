@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.NewBookingDto;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Profile("reactive")
+public class ReactiveBookingClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/bookings";
+
+    @Autowired
+    public ReactiveBookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
+        super(builder.clone().baseUrl(serverUrl + API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Object>> addBooking(NewBookingDto newBookingDto, Long bookerId) {
+        return post("", bookerId, newBookingDto);
+    }
+
+    public Mono<ResponseEntity<Object>> addBookings(List<NewBookingDto> newBookingDtos, Long bookerId) {
+        return post("/batch", bookerId, newBookingDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> approveBooking(long bookingId, boolean approved, Long ownerId) {
+        Map<String, Object> parameters = Map.of(
+                "approved", approved
+        );
+        return patch("/" + bookingId + "?approved={approved}", ownerId, parameters, null);
+    }
+
+    public Mono<ResponseEntity<Object>> approveBookings(List<Long> bookingIds, boolean approved, Long ownerId) {
+        Map<String, Object> parameters = Map.of(
+                "approved", approved
+        );
+        return patch("/approve?approved={approved}", ownerId, parameters, bookingIds);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookerSummary(Long bookerId) {
+        return get("/summary", bookerId);
+    }
+
+    public Mono<ResponseEntity<Object>> getOwnerSummary(Long ownerId) {
+        return get("/owner/summary", ownerId);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingInfo(long bookingId, Long userId) {
+        return get("/" + bookingId, userId);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookerBookings(Long bookerId,
+                                                          BookingState state,
+                                                          int from,
+                                                          int size,
+                                                          String cursor,
+                                                          String ifNoneMatch) {
+        return get(BookingClient.withCursor("?state={state}&from={from}&size={size}", cursor), bookerId,
+                BookingClient.listParameters(state, from, size, cursor), ifNoneMatch);
+    }
+
+    public Mono<ResponseEntity<Object>> getOwnerBookings(Long ownerId,
+                                                         BookingState state,
+                                                         int from,
+                                                         int size,
+                                                         String cursor,
+                                                         String ifNoneMatch) {
+        return get(BookingClient.withCursor("/owner?state={state}&from={from}&size={size}", cursor), ownerId,
+                BookingClient.listParameters(state, from, size, cursor), ifNoneMatch);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.NewBookingDto;
+
+import java.util.List;
+
+@Controller
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class ReactiveBookingController implements BookingApi<Mono<ResponseEntity<Object>>> {
+    private final ReactiveBookingClient bookingClient;
+
+    @Override
+    public Mono<ResponseEntity<Object>> addBooking(NewBookingDto newBookingDto, Long bookerId) {
+        BookingValidator.validateBookingPeriod(newBookingDto);
+        log.info("Add booking with userId={}", bookerId);
+        return bookingClient.addBooking(newBookingDto, bookerId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> addBookings(List<NewBookingDto> newBookingDtos, Long bookerId) {
+        newBookingDtos.forEach(BookingValidator::validateBookingPeriod);
+        log.info("Add {} bookings with userId={}", newBookingDtos.size(), bookerId);
+        return bookingClient.addBookings(newBookingDtos, bookerId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> approveBookings(List<Long> bookingIds, boolean approved, Long ownerId) {
+        log.info("Patch {} bookings with ownerId={}, approved={}", bookingIds.size(), ownerId, approved);
+        return bookingClient.approveBookings(bookingIds, approved, ownerId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> approveBooking(long bookingId, boolean approved, Long ownerId) {
+        log.info("Patch booking with ownerId={}, bookingId={}", ownerId, bookingId);
+        return bookingClient.approveBooking(bookingId, approved, ownerId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> getBookerSummary(Long bookerId) {
+        log.info("Get booking summary with bookerId={}", bookerId);
+        return bookingClient.getBookerSummary(bookerId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> getOwnerSummary(Long ownerId) {
+        log.info("Get booking summary with ownerId={}", ownerId);
+        return bookingClient.getOwnerSummary(ownerId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> getBookingInfo(long bookingId, Long userId) {
+        log.info("Get booking with userId={}", userId);
+        return bookingClient.getBookingInfo(bookingId, userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> getBookerBookings(Long bookerId, String stateParam, int from, int size, String cursor,
+                                                          String ifNoneMatch) {
+        BookingState state = BookingValidator.parseState(stateParam);
+        log.info("Get booking with state {}, bookerId={}, from={}, size={}, cursor={}", stateParam, bookerId, from, size, cursor);
+        return bookingClient.getBookerBookings(bookerId, state, from, size, cursor, ifNoneMatch);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> getOwnerBookings(Long ownerId, String stateParam, int from, int size, String cursor,
+                                                         String ifNoneMatch) {
+        BookingState state = BookingValidator.parseState(stateParam);
+        log.info("Get booking with state {}, ownerId={}, from={}, size={}, cursor={}", stateParam, ownerId, from, size, cursor);
+        return bookingClient.getOwnerBookings(ownerId, state, from, size, cursor, ifNoneMatch);
+    }
+}
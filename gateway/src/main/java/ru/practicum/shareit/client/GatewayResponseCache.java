@@ -0,0 +1,102 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш успешных ответов сервера на запросы чтения, ограниченный суммарным размером тел и временем жизни.
+ * Любой успешный запрос на изменение сбрасывает записи ресурсов, чьи ответы он может затронуть.
+ * Кэш локален для экземпляра гейтвея: изменения через другие экземпляры и изменения, которые сервер делает сам
+ * (например, просрочка бронирований), видны после истечения ttl. Поэтому кэшируются только ответы, которые
+ * не зависят от времени и бронирований. Реактивный режим кэш не использует, запросы всегда идут на сервер.
+ */
+@Component
+@Profile("!reactive")
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class GatewayResponseCache {
+    private static final int HEADERS_WEIGHT = 256;
+
+    // Ресурс, который изменяется -> ресурсы, в ответах которых это изменение видно
+    private static final Map<String, Set<String>> AFFECTED_RESOURCES = Map.of(
+            "users", Set.of("users", "items", "requests"),
+            "items", Set.of("items", "requests"),
+            "requests", Set.of("requests")
+    );
+
+    private final Cache<Key, ResponseEntity<Object>> cache;
+    private final boolean enabled;
+    // Увеличивается при каждом сбросе: ответ, запрошенный до сброса, в кэш уже не попадает
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public GatewayResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((Key key, ResponseEntity<Object> response) -> weigh(response))
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gatewayResponses");
+    }
+
+    public ResponseEntity<Object> get(URI uri, Long userId, Supplier<ResponseEntity<Object>> request) {
+        if (!enabled) {
+            return request.get();
+        }
+        Key key = new Key(uri.toString(), resourceOf(uri), userId);
+        ResponseEntity<Object> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long invalidationsBefore = invalidations.get();
+        ResponseEntity<Object> response = request.get();
+        if (response.getStatusCode().is2xxSuccessful() && invalidations.get() == invalidationsBefore) {
+            cache.put(key, response);
+        }
+        return response;
+    }
+
+    public void invalidate(URI changedUri) {
+        if (!enabled) {
+            return;
+        }
+        Set<String> affected = AFFECTED_RESOURCES.getOrDefault(resourceOf(changedUri), Set.of());
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> affected.contains(key.resource));
+    }
+
+    private static String resourceOf(URI uri) {
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+
+    private static int weigh(ResponseEntity<Object> response) {
+        Object body = response.getBody();
+        return HEADERS_WEIGHT + (body instanceof byte[] ? ((byte[]) body).length : 0);
+    }
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static class Key {
+        private final String uri;
+        @EqualsAndHashCode.Exclude
+        private final String resource;
+        private final Long userId;
+    }
+}
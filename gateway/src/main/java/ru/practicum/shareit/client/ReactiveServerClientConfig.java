@@ -0,0 +1,46 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Пул соединений с сервером для реактивного режима. Настройки те же, что у {@link ServerHttpClientConfig}.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(ServerHttpClientProperties.class)
+public class ReactiveServerClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider serverConnectionProvider(ServerHttpClientProperties properties) {
+        // Пул Reactor Netty заводится на каждый адрес отдельно, а гейтвей ходит на один сервер:
+        // как и в обычном режиме, соединений с ним не больше max-per-route и не больше max-total
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(Math.min(properties.getMaxPerRoute(), properties.getMaxTotal()))
+                // Запросы ждут соединение не дольше таймаута, длину очереди не ограничиваем
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getIdleEviction())
+                .maxLifeTime(properties.getKeepAlive())
+                .evictInBackground(properties.getIdleEviction())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient.Builder serverWebClientBuilder(ConnectionProvider serverConnectionProvider,
+                                                    ServerHttpClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(serverConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout());
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
+}
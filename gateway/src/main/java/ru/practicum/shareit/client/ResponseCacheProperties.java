@@ -0,0 +1,19 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша ответов сервера на запросы чтения.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-gateway.cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+    // Ограничение суммарного размера тел закэшированных ответов
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+    private Duration ttl = Duration.ofSeconds(30);
+}
@@ -6,6 +6,9 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import javax.validation.ConstraintViolationException;
 
 
 @RestControllerAdvice
@@ -25,10 +28,20 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage(), "");
     }
 
-    @ExceptionHandler({ObjectNotValidException.class, MethodArgumentNotValidException.class})
+    @ExceptionHandler({ObjectNotValidException.class, MethodArgumentNotValidException.class,
+            WebExchangeBindException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationError(final Exception e) {
         log.warn(e.getMessage());
         return new ErrorResponse("Ошибка валидации", e.getMessage());
     }
+
+    // Ограничения на параметрах методов контроллеров с @Validated: from и size списков, тела пакетных запросов.
+    // Раньше такие ошибки попадали в handleGeneralError и возвращались как 500.
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleConstraintViolation(final ConstraintViolationException e) {
+        log.warn(e.getMessage());
+        return new ErrorResponse("Ошибка валидации", e.getMessage());
+    }
 }
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.comments.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+/**
+ * Маршруты и проверки запросов предметов, общие для обычного и реактивного контроллеров.
+ * R - тип ответа: ResponseEntity для обычного режима и Mono с ResponseEntity для реактивного.
+ */
+@RequestMapping("/items")
+public interface ItemApi<R> {
+    @GetMapping("/{itemId}")
+    R getItemById(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId);
+
+    @GetMapping
+    R findItemsByOwnerId(@RequestHeader("X-Sharer-User-Id") Long userId,
+                         @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                         @Positive @RequestParam(defaultValue = "10") int size,
+                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
+
+    @GetMapping("/search")
+    R searchItemsByPhrase(@RequestParam("text") String searchPhrase,
+                          @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                          @Positive @RequestParam(defaultValue = "10") int size);
+
+    @PostMapping
+    R addItem(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestBody ItemDto itemDto);
+
+    @PostMapping("/{itemId}/comment")
+    R addComment(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestBody @Valid CommentDto commentDto,
+                 @PathVariable long itemId);
+
+    @GetMapping("/{itemId}/comments")
+    R findComments(@PathVariable long itemId,
+                   @RequestParam(required = false) String cursor,
+                   @Positive @RequestParam(defaultValue = "10") int size);
+
+    // Даты в формате ISO (2030-01-01T10:00:00) проверяет сервер
+    @GetMapping("/{itemId}/availability")
+    R getAvailability(@PathVariable long itemId,
+                      @RequestParam(required = false) String from,
+                      @RequestParam(required = false) String to);
+
+    @PatchMapping("/{itemId}")
+    R updateItem(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId, @RequestBody ItemDto itemDto);
+}
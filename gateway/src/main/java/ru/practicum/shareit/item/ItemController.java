@@ -3,87 +3,69 @@ package ru.practicum.shareit.item;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.*;
-import ru.practicum.shareit.exception.ObjectNotValidException;
 import ru.practicum.shareit.item.comments.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
-import javax.validation.Valid;
-import javax.validation.constraints.Positive;
-import javax.validation.constraints.PositiveOrZero;
-
-
 @Controller
+@Profile("!reactive")
 @RequiredArgsConstructor
 @Slf4j
 @Validated
-@RequestMapping("/items")
-public class ItemController {
+public class ItemController implements ItemApi<ResponseEntity<Object>> {
     private final ItemClient client;
 
-    @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId) {
+    @Override
+    public ResponseEntity<Object> getItemById(Long itemId, Long userId) {
         log.info("Get item with userId={}, itemId={}", userId, itemId);
         return client.getItemById(itemId, userId);
     }
 
-    @GetMapping
-    public ResponseEntity<Object> findItemsByOwnerId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                     @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                     @Positive @RequestParam(defaultValue = "10") int size) {
+    @Override
+    public ResponseEntity<Object> findItemsByOwnerId(Long userId, int from, int size, String ifNoneMatch) {
         log.info("Get items by owner with userId={}, from={}, size={}", userId, from, size);
-        return client.findItemsByOwnerId(userId, from, size);
+        return client.findItemsByOwnerId(userId, from, size, ifNoneMatch);
     }
 
-    @GetMapping("/search")
-    public ResponseEntity<Object> searchItemsByPhrase(@RequestParam("text") String searchPhrase,
-                                                      @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                      @Positive @RequestParam(defaultValue = "10") int size) {
+    @Override
+    public ResponseEntity<Object> searchItemsByPhrase(String searchPhrase, int from, int size) {
         log.info("Get items by phrase with text={}, from={}, size={}", searchPhrase, from, size);
         return client.searchItemsByPhrase(searchPhrase, from, size);
     }
 
-    @PostMapping
-    public ResponseEntity<Object> addItem(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestBody ItemDto itemDto) {
-        isValidForCreation(itemDto);
+    @Override
+    public ResponseEntity<Object> addItem(Long userId, ItemDto itemDto) {
+        ItemValidator.isValidForCreation(itemDto);
         log.info("Add item with userId={}", userId);
         return client.addItem(userId, itemDto);
     }
 
-    @PostMapping("/{itemId}/comment")
+    @Override
     @Cacheable
-    public ResponseEntity<Object> addComment(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestBody @Valid CommentDto commentDto,
-                                             @PathVariable long itemId) {
+    public ResponseEntity<Object> addComment(Long userId, CommentDto commentDto, long itemId) {
         log.info("Add comment to item with userId={}, itemId={}", userId, itemId);
         return client.addComment(userId, commentDto, itemId);
     }
 
-    @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId, @RequestBody ItemDto itemDto) {
-        isValidForUpdate(itemDto);
-        log.info("Patch item with userId={}, itemId={}", userId, itemDto);
-        return client.updateItem(itemId, userId, itemDto);
+    @Override
+    public ResponseEntity<Object> findComments(long itemId, String cursor, int size) {
+        log.info("Get comments of item with itemId={}, cursor={}, size={}", itemId, cursor, size);
+        return client.findComments(itemId, cursor, size);
     }
 
-    private void isValidForCreation(ItemDto itemDto) {
-        if (itemDto.getName() == null
-                || itemDto.getName().isEmpty()
-                || itemDto.getDescription() == null
-                || itemDto.getDescription().isEmpty()
-                || itemDto.getAvailable() == null) {
-            throw new ObjectNotValidException();
-        }
+    @Override
+    public ResponseEntity<Object> getAvailability(long itemId, String from, String to) {
+        log.info("Get availability of item with itemId={}, from={}, to={}", itemId, from, to);
+        return client.getAvailability(itemId, from, to);
     }
 
-    private void isValidForUpdate(ItemDto itemDto) {
-        if (itemDto.getName() != null
-                && itemDto.getName().isEmpty()
-                || itemDto.getDescription() != null
-                && itemDto.getDescription().isEmpty()) {
-            throw new ObjectNotValidException();
-        }
+    @Override
+    public ResponseEntity<Object> updateItem(Long itemId, Long userId, ItemDto itemDto) {
+        ItemValidator.isValidForUpdate(itemDto);
+        log.info("Patch item with userId={}, itemId={}", userId, itemDto);
+        return client.updateItem(itemId, userId, itemDto);
     }
 }
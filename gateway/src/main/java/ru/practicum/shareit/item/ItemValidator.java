@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.exception.ObjectNotValidException;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+// Проверки запросов предметов, общие для обычного и реактивного контроллеров
+public class ItemValidator {
+    public static void isValidForCreation(ItemDto itemDto) {
+        if (itemDto.getName() == null
+                || itemDto.getName().isEmpty()
+                || itemDto.getDescription() == null
+                || itemDto.getDescription().isEmpty()
+                || itemDto.getAvailable() == null) {
+            throw new ObjectNotValidException();
+        }
+    }
+
+    public static void isValidForUpdate(ItemDto itemDto) {
+        if (itemDto.getName() != null
+                && itemDto.getName().isEmpty()
+                || itemDto.getDescription() != null
+                && itemDto.getDescription().isEmpty()) {
+            throw new ObjectNotValidException();
+        }
+    }
+}
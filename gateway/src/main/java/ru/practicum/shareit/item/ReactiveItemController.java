@@ -0,0 +1,70 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.comments.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+@Controller
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class ReactiveItemController implements ItemApi<Mono<ResponseEntity<Object>>> {
+    private final ReactiveItemClient client;
+
+    @Override
+    public Mono<ResponseEntity<Object>> getItemById(Long itemId, Long userId) {
+        log.info("Get item with userId={}, itemId={}", userId, itemId);
+        return client.getItemById(itemId, userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> findItemsByOwnerId(Long userId, int from, int size, String ifNoneMatch) {
+        log.info("Get items by owner with userId={}, from={}, size={}", userId, from, size);
+        return client.findItemsByOwnerId(userId, from, size, ifNoneMatch);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> searchItemsByPhrase(String searchPhrase, int from, int size) {
+        log.info("Get items by phrase with text={}, from={}, size={}", searchPhrase, from, size);
+        return client.searchItemsByPhrase(searchPhrase, from, size);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> addItem(Long userId, ItemDto itemDto) {
+        ItemValidator.isValidForCreation(itemDto);
+        log.info("Add item with userId={}", userId);
+        return client.addItem(userId, itemDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> addComment(Long userId, CommentDto commentDto, long itemId) {
+        log.info("Add comment to item with userId={}, itemId={}", userId, itemId);
+        return client.addComment(userId, commentDto, itemId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> findComments(long itemId, String cursor, int size) {
+        log.info("Get comments of item with itemId={}, cursor={}, size={}", itemId, cursor, size);
+        return client.findComments(itemId, cursor, size);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> getAvailability(long itemId, String from, String to) {
+        log.info("Get availability of item with itemId={}, from={}, to={}", itemId, from, to);
+        return client.getAvailability(itemId, from, to);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> updateItem(Long itemId, Long userId, ItemDto itemDto) {
+        ItemValidator.isValidForUpdate(itemDto);
+        log.info("Patch item with userId={}, itemId={}", userId, itemDto);
+        return client.updateItem(itemId, userId, itemDto);
+    }
+}
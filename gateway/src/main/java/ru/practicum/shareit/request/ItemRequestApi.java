@@ -0,0 +1,32 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+/**
+ * Маршруты и проверки запросов вещей, общие для обычного и реактивного контроллеров.
+ * R - тип ответа: ResponseEntity для обычного режима и Mono с ResponseEntity для реактивного.
+ */
+@RequestMapping(path = "/requests")
+public interface ItemRequestApi<R> {
+    @PostMapping
+    R addItemRequest(@RequestBody @Valid ItemRequestDto itemRequestDto,
+                     @RequestHeader("X-Sharer-User-Id") Long userId);
+
+    @GetMapping
+    R findAllUserRequests(@RequestHeader("X-Sharer-User-Id") Long userId);
+
+    @GetMapping("/all")
+    R findAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                      @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                      @Positive @RequestParam(defaultValue = "10") int size,
+                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
+
+    @GetMapping("/{requestId}")
+    R findRequestById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long requestId);
+}
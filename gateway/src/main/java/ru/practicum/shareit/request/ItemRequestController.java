@@ -2,47 +2,40 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
-import javax.validation.Valid;
-import javax.validation.constraints.Positive;
-import javax.validation.constraints.PositiveOrZero;
-
 @Controller
-@RequestMapping(path = "/requests")
+@Profile("!reactive")
 @RequiredArgsConstructor
 @Validated
 @Slf4j
-public class ItemRequestController {
+public class ItemRequestController implements ItemRequestApi<ResponseEntity<Object>> {
     private final ItemRequestClient client;
 
-    @PostMapping
-    public ResponseEntity<Object> addItemRequest(@RequestBody @Valid ItemRequestDto itemRequestDto,
-                                                 @RequestHeader("X-Sharer-User-Id") Long userId) {
+    @Override
+    public ResponseEntity<Object> addItemRequest(ItemRequestDto itemRequestDto, Long userId) {
         log.info("Add itemRequest with userId={}", userId);
         return client.addItemRequest(itemRequestDto, userId);
     }
 
-    @GetMapping
-    public ResponseEntity<Object> findAllUserRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    @Override
+    public ResponseEntity<Object> findAllUserRequests(Long userId) {
         log.info("Get itemRequests for user with userId={}", userId);
         return client.findAllUserRequests(userId);
     }
 
-    @GetMapping("/all")
-    public ResponseEntity<Object> findAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                  @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                  @Positive @RequestParam(defaultValue = "10") int size) {
+    @Override
+    public ResponseEntity<Object> findAllRequests(Long userId, int from, int size, String ifNoneMatch) {
         log.info("Get all itemRequests with userId={}, from={}, size={}", userId, from, size);
-        return client.findAllRequests(userId, from, size);
+        return client.findAllRequests(userId, from, size, ifNoneMatch);
     }
 
-    @GetMapping("/{requestId}")
-    public ResponseEntity<Object> findRequestById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long requestId) {
+    @Override
+    public ResponseEntity<Object> findRequestById(Long userId, Long requestId) {
         log.info("Get itemRequest with userId={}, requestId={}", userId, requestId);
         return client.findRequestById(userId, requestId);
     }
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+@Controller
+@Profile("reactive")
+@RequiredArgsConstructor
+@Validated
+@Slf4j
+public class ReactiveItemRequestController implements ItemRequestApi<Mono<ResponseEntity<Object>>> {
+    private final ReactiveItemRequestClient client;
+
+    @Override
+    public Mono<ResponseEntity<Object>> addItemRequest(ItemRequestDto itemRequestDto, Long userId) {
+        log.info("Add itemRequest with userId={}", userId);
+        return client.addItemRequest(itemRequestDto, userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> findAllUserRequests(Long userId) {
+        log.info("Get itemRequests for user with userId={}", userId);
+        return client.findAllUserRequests(userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> findAllRequests(Long userId, int from, int size, String ifNoneMatch) {
+        log.info("Get all itemRequests with userId={}, from={}, size={}", userId, from, size);
+        return client.findAllRequests(userId, from, size, ifNoneMatch);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> findRequestById(Long userId, Long requestId) {
+        log.info("Get itemRequest with userId={}, requestId={}", userId, requestId);
+        return client.findRequestById(userId, requestId);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.user.dto.UserDto;
+
+@Controller
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class ReactiveUserController implements UserApi<Mono<ResponseEntity<Object>>> {
+    private final ReactiveUserClient client;
+
+    @Override
+    public Mono<ResponseEntity<Object>> getAllUsers() {
+        log.info("Get all users");
+        return client.getAllUsers();
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> getUserById(Long userId) {
+        log.info("Get user with userId={}", userId);
+        return client.getUserById(userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> createUser(UserDto userDto) {
+        log.info("Add new user");
+        return client.createUser(userDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> updateUser(Long userId, UserDto userDto) {
+        UserValidator.isValidForUpdate(userDto);
+        log.info("Patch user with userId={}", userId);
+        return client.updateUser(userId, userDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> deleteUserById(Long userId) {
+        log.info("Delete user with userId={}", userId);
+        return client.deleteUserById(userId);
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.user.dto.ExistUser;
+import ru.practicum.shareit.user.dto.NewUser;
+import ru.practicum.shareit.user.dto.UserDto;
+
+/**
+ * Маршруты и проверки запросов пользователей, общие для обычного и реактивного контроллеров.
+ * R - тип ответа: ResponseEntity для обычного режима и Mono с ResponseEntity для реактивного.
+ */
+@RequestMapping(path = "/users")
+public interface UserApi<R> {
+    @GetMapping
+    R getAllUsers();
+
+    @GetMapping("/{userId}")
+    R getUserById(@PathVariable Long userId);
+
+    @PostMapping
+    R createUser(@Validated(NewUser.class) @RequestBody UserDto userDto);
+
+    @PatchMapping("/{userId}")
+    R updateUser(@PathVariable Long userId, @Validated(ExistUser.class) @RequestBody UserDto userDto);
+
+    @DeleteMapping("/{userId}")
+    R deleteUserById(@PathVariable Long userId);
+}
@@ -2,60 +2,48 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.*;
-import ru.practicum.shareit.exception.ObjectNotValidException;
-import ru.practicum.shareit.user.dto.ExistUser;
-import ru.practicum.shareit.user.dto.NewUser;
 import ru.practicum.shareit.user.dto.UserDto;
 
 @Controller
+@Profile("!reactive")
 @RequiredArgsConstructor
 @Slf4j
 @Validated
-@RequestMapping(path = "/users")
-public class UserController {
+public class UserController implements UserApi<ResponseEntity<Object>> {
     private final UserClient client;
 
-    @GetMapping
+    @Override
     public ResponseEntity<Object> getAllUsers() {
         log.info("Get all users");
         return client.getAllUsers();
     }
 
-    @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable Long userId) {
+    @Override
+    public ResponseEntity<Object> getUserById(Long userId) {
         log.info("Get user with userId={}", userId);
         return client.getUserById(userId);
     }
 
-    @PostMapping
-    public ResponseEntity<Object> createUser(@Validated(NewUser.class) @RequestBody UserDto userDto) {
+    @Override
+    public ResponseEntity<Object> createUser(UserDto userDto) {
         log.info("Add new user");
         return client.createUser(userDto);
     }
 
-    @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@PathVariable Long userId, @Validated(ExistUser.class) @RequestBody UserDto userDto) {
-        isValidForUpdate(userDto);
+    @Override
+    public ResponseEntity<Object> updateUser(Long userId, UserDto userDto) {
+        UserValidator.isValidForUpdate(userDto);
         log.info("Patch user with userId={}", userId);
         return client.updateUser(userId, userDto);
     }
 
-    @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUserById(@PathVariable Long userId) {
+    @Override
+    public ResponseEntity<Object> deleteUserById(Long userId) {
         log.info("Delete user with userId={}", userId);
         return client.deleteUserById(userId);
     }
-
-    private void isValidForUpdate(UserDto userDto) {
-        if (userDto.getEmail() != null
-                && userDto.getEmail().isEmpty()
-                || userDto.getName() != null
-                && userDto.getName().isEmpty()) {
-            throw new ObjectNotValidException();
-        }
-    }
 }
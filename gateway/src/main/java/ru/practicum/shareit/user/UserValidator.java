@@ -0,0 +1,16 @@
+package ru.practicum.shareit.user;
+
+import ru.practicum.shareit.exception.ObjectNotValidException;
+import ru.practicum.shareit.user.dto.UserDto;
+
+// Проверки запросов пользователей, общие для обычного и реактивного контроллеров
+public class UserValidator {
+    public static void isValidForUpdate(UserDto userDto) {
+        if (userDto.getEmail() != null
+                && userDto.getEmail().isEmpty()
+                || userDto.getName() != null
+                && userDto.getName().isEmpty()) {
+            throw new ObjectNotValidException();
+        }
+    }
+}
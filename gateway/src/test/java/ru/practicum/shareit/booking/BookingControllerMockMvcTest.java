@@ -0,0 +1,132 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.NewBookingDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Ограничения на параметрах методов (ConstraintViolationException) отвечают 400 и не доходят до сервера
+@WebMvcTest(controllers = BookingController.class)
+public class BookingControllerMockMvcTest {
+    @Autowired
+    ObjectMapper mapper;
+    @MockBean
+    BookingClient bookingClient;
+    @Autowired
+    private MockMvc mvc;
+
+    private final NewBookingDto newBookingDto = NewBookingDto.builder()
+            .itemId(1L)
+            .start(LocalDateTime.now().plusDays(1))
+            .end(LocalDateTime.now().plusDays(2))
+            .build();
+
+    @Test
+    void testAddBookingsAcceptsValidBatch() throws Exception {
+        when(bookingClient.addBookings(any(), anyLong()))
+                .thenReturn(ResponseEntity.ok().build());
+
+        mvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(newBookingDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testAddBookingsRejectsEmptyBatch() throws Exception {
+        mvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(Collections.emptyList()))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Ошибка валидации")));
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void testAddBookingsRejectsOversizedBatch() throws Exception {
+        List<NewBookingDto> batch = IntStream.range(0, 101)
+                .mapToObj(i -> newBookingDto)
+                .collect(Collectors.toList());
+
+        mvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(batch))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void testAddBookingsRejectsEntryWithoutItem() throws Exception {
+        NewBookingDto withoutItem = NewBookingDto.builder()
+                .start(newBookingDto.getStart())
+                .end(newBookingDto.getEnd())
+                .build();
+
+        mvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(newBookingDto, withoutItem)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void testApproveBookingsRejectsNonPositiveId() throws Exception {
+        mvc.perform(patch("/bookings/approve")
+                        .param("approved", "true")
+                        .content(mapper.writeValueAsString(List.of(1L, 0L)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void testGetBookerBookingsRejectsNegativeFrom() throws Exception {
+        mvc.perform(get("/bookings")
+                        .param("from", "-1")
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void testGetOwnerBookingsRejectsZeroSize() throws Exception {
+        mvc.perform(get("/bookings/owner")
+                        .param("size", "0")
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingClient);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.NewBookingDto;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Реактивный контроллер получает маршруты и ограничения из BookingApi, как и обычный
+@ActiveProfiles("reactive")
+@WebFluxTest(controllers = ReactiveBookingController.class)
+public class ReactiveBookingControllerWebFluxTest {
+    @MockBean
+    ReactiveBookingClient bookingClient;
+    @Autowired
+    private WebTestClient client;
+
+    private final NewBookingDto newBookingDto = NewBookingDto.builder()
+            .itemId(1L)
+            .start(LocalDateTime.now().plusDays(1))
+            .end(LocalDateTime.now().plusDays(2))
+            .build();
+
+    @Test
+    void testAddBookingsAcceptsValidBatch() {
+        when(bookingClient.addBookings(any(), anyLong()))
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
+
+        client.post().uri("/bookings/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Sharer-User-Id", "1")
+                .bodyValue(List.of(newBookingDto))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void testAddBookingsRejectsEmptyBatch() {
+        client.post().uri("/bookings/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Sharer-User-Id", "1")
+                .bodyValue(Collections.emptyList())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void testAddBookingRejectsEndBeforeStart() {
+        NewBookingDto reversed = NewBookingDto.builder()
+                .itemId(1L)
+                .start(newBookingDto.getEnd())
+                .end(newBookingDto.getStart())
+                .build();
+
+        client.post().uri("/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Sharer-User-Id", "1")
+                .bodyValue(reversed)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void testGetOwnerBookingsPassesIfNoneMatch() {
+        when(bookingClient.getOwnerBookings(1L, BookingState.ALL, 0, 10, null, "\"tag\""))
+                .thenReturn(Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"tag\"").build()));
+
+        client.get().uri("/bookings/owner")
+                .header("X-Sharer-User-Id", "1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"tag\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"tag\"");
+    }
+
+    @Test
+    void testGetOwnerBookingsRejectsZeroSize() {
+        client.get().uri("/bookings/owner?size=0")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(bookingClient);
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.user.UserClient;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+// Клиенты гейтвея с общим кэшем: какие запросы идут на сервер, а какие обслуживает кэш
+public class CachingClientTest {
+    private static final String SERVER_URL = "http://localhost:9090";
+
+    private final GatewayResponseCache cache = new GatewayResponseCache(new ResponseCacheProperties(),
+            new SimpleMeterRegistry());
+
+    @Test
+    void testWriteThroughGatewayInvalidatesCachedRead() {
+        UserClient client = new UserClient(SERVER_URL, new RestTemplateBuilder(),
+                new SimpleClientHttpRequestFactory(), cache);
+        MockRestServiceServer server = MockRestServiceServer.bindTo(client.rest).build();
+        server.expect(ExpectedCount.once(), requestTo(SERVER_URL + "/users/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(ProxyHeaders.READ_PRIMARY, "true"))
+                .andRespond(withSuccess("{\"name\":\"Roland\"}", MediaType.APPLICATION_JSON));
+        server.expect(ExpectedCount.once(), requestTo(SERVER_URL + "/users/1"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess("{\"name\":\"Voland\"}", MediaType.APPLICATION_JSON));
+        server.expect(ExpectedCount.once(), requestTo(SERVER_URL + "/users/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"name\":\"Voland\"}", MediaType.APPLICATION_JSON));
+
+        client.getUserById(1L);
+        client.getUserById(1L);
+        client.updateUser(1L, UserDto.builder().name("Voland").build());
+        client.getUserById(1L);
+
+        server.verify();
+    }
+
+    @Test
+    void testItemViewWithBookingsIsNotCached() {
+        ItemClient client = new ItemClient(SERVER_URL, new RestTemplateBuilder(),
+                new SimpleClientHttpRequestFactory(), cache);
+        MockRestServiceServer server = MockRestServiceServer.bindTo(client.rest).build();
+        server.expect(ExpectedCount.twice(), requestTo(SERVER_URL + "/items/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(headerDoesNotExist(ProxyHeaders.READ_PRIMARY))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON));
+
+        client.getItemById(1L, 1L);
+        client.getItemById(1L, 1L);
+
+        server.verify();
+    }
+}
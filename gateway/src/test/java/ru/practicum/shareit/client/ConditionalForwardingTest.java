@@ -0,0 +1,61 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.web.client.MockRestServiceServer;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingState;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+// If-None-Match доходит до сервера только в тех GET, куда его передал контроллер
+public class ConditionalForwardingTest {
+    private static final String SERVER_URL = "http://localhost:9090";
+
+    private final BookingClient client = new BookingClient(SERVER_URL, new RestTemplateBuilder(),
+            new SimpleClientHttpRequestFactory(), new GatewayResponseCache(new ResponseCacheProperties(),
+            new SimpleMeterRegistry()));
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(client.rest).build();
+
+    @Test
+    void testNotModifiedIsPassedThrough() {
+        HttpHeaders serverHeaders = new HttpHeaders();
+        serverHeaders.setETag("\"tag\"");
+        server.expect(requestTo(SERVER_URL + "/bookings/owner?state=ALL&from=0&size=10"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"tag\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(serverHeaders));
+
+        ResponseEntity<Object> response = client.getOwnerBookings(1L, BookingState.ALL, 0, 10, null, "\"tag\"");
+
+        server.verify();
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.NOT_MODIFIED));
+        assertThat(response.getHeaders().getETag(), equalTo("\"tag\""));
+    }
+
+    @Test
+    void testHeaderIsNotSentWithoutValue() {
+        server.expect(requestTo(SERVER_URL + "/bookings/1?approved=true"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON));
+
+        client.approveBooking(1L, true, 1L);
+
+        server.verify();
+    }
+}
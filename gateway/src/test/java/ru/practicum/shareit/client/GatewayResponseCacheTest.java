@@ -0,0 +1,111 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class GatewayResponseCacheTest {
+    private static final URI USER = URI.create("http://localhost:9090/users/1");
+    private static final URI REQUEST = URI.create("http://localhost:9090/requests/1");
+    private static final URI SEARCH = URI.create("http://localhost:9090/items/search?text=saw&from=0&size=10");
+
+    private final GatewayResponseCache cache = cache(true);
+    private final AtomicInteger serverCalls = new AtomicInteger();
+
+    @Test
+    void testRepeatedReadIsServedFromCache() {
+        ResponseEntity<Object> first = cache.get(USER, null, server(HttpStatus.OK));
+        ResponseEntity<Object> second = cache.get(USER, null, server(HttpStatus.OK));
+
+        assertThat(serverCalls.get(), equalTo(1));
+        assertThat(second, equalTo(first));
+    }
+
+    @Test
+    void testDifferentUriIsMiss() {
+        cache.get(SEARCH, null, server(HttpStatus.OK));
+        cache.get(URI.create("http://localhost:9090/items/search?text=saw&from=10&size=10"), null,
+                server(HttpStatus.OK));
+
+        assertThat(serverCalls.get(), equalTo(2));
+    }
+
+    @Test
+    void testEntriesAreKeptPerUser() {
+        cache.get(REQUEST, 1L, server(HttpStatus.OK));
+        cache.get(REQUEST, 2L, server(HttpStatus.OK));
+        cache.get(REQUEST, 1L, server(HttpStatus.OK));
+
+        assertThat(serverCalls.get(), equalTo(2));
+    }
+
+    @Test
+    void testErrorResponsesAreNotCached() {
+        cache.get(USER, null, server(HttpStatus.NOT_FOUND));
+        cache.get(USER, null, server(HttpStatus.NOT_FOUND));
+
+        assertThat(serverCalls.get(), equalTo(2));
+    }
+
+    @Test
+    void testWriteInvalidatesAffectedResourcesOnly() {
+        cache.get(USER, null, server(HttpStatus.OK));
+        cache.get(REQUEST, 1L, server(HttpStatus.OK));
+        cache.get(SEARCH, null, server(HttpStatus.OK));
+
+        // Изменение запроса вещи не затрагивает пользователей и поиск предметов
+        cache.invalidate(URI.create("http://localhost:9090/requests"));
+        cache.get(USER, null, server(HttpStatus.OK));
+        cache.get(SEARCH, null, server(HttpStatus.OK));
+        cache.get(REQUEST, 1L, server(HttpStatus.OK));
+        assertThat(serverCalls.get(), equalTo(4));
+
+        // Изменение пользователя видно во всех ответах
+        cache.invalidate(URI.create("http://localhost:9090/users/1"));
+        cache.get(USER, null, server(HttpStatus.OK));
+        cache.get(SEARCH, null, server(HttpStatus.OK));
+        cache.get(REQUEST, 1L, server(HttpStatus.OK));
+        assertThat(serverCalls.get(), equalTo(7));
+    }
+
+    @Test
+    void testResponseRequestedBeforeInvalidationIsNotCached() {
+        cache.get(USER, null, () -> {
+            cache.invalidate(URI.create("http://localhost:9090/users/1"));
+            return server(HttpStatus.OK).get();
+        });
+        cache.get(USER, null, server(HttpStatus.OK));
+
+        assertThat(serverCalls.get(), equalTo(2));
+    }
+
+    @Test
+    void testDisabledCacheAlwaysCallsServer() {
+        GatewayResponseCache disabled = cache(false);
+
+        disabled.get(USER, null, server(HttpStatus.OK));
+        disabled.get(USER, null, server(HttpStatus.OK));
+
+        assertThat(serverCalls.get(), equalTo(2));
+    }
+
+    private Supplier<ResponseEntity<Object>> server(HttpStatus status) {
+        return () -> ResponseEntity.status(status)
+                .body(("response " + serverCalls.incrementAndGet()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static GatewayResponseCache cache(boolean enabled) {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(enabled);
+        return new GatewayResponseCache(properties, new SimpleMeterRegistry());
+    }
+}
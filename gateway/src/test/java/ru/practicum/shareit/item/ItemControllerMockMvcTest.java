@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ItemController.class)
+public class ItemControllerMockMvcTest {
+    @MockBean
+    ItemClient client;
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void testFindItemsByOwnerIdRejectsNegativeFrom() throws Exception {
+        mvc.perform(get("/items")
+                        .param("from", "-1")
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(client);
+    }
+
+    @Test
+    void testSearchItemsByPhraseRejectsZeroSize() throws Exception {
+        mvc.perform(get("/items/search")
+                        .param("text", "пила")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(client);
+    }
+
+    @Test
+    void testFindCommentsRejectsNegativeSize() throws Exception {
+        mvc.perform(get("/items/1/comments")
+                        .param("size", "-5"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(client);
+    }
+}
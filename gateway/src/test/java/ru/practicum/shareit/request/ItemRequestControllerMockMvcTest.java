@@ -0,0 +1,37 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ItemRequestController.class)
+public class ItemRequestControllerMockMvcTest {
+    @MockBean
+    ItemRequestClient client;
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void testFindAllRequestsRejectsNegativeFrom() throws Exception {
+        mvc.perform(get("/requests/all")
+                        .param("from", "-1")
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(client);
+    }
+
+    @Test
+    void testFindAllRequestsRejectsZeroSize() throws Exception {
+        mvc.perform(get("/requests/all")
+                        .param("size", "0")
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(client);
+    }
+}
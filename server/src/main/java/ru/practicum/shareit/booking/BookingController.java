@@ -1,9 +1,17 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.util.ConditionalRequest;
+import ru.practicum.shareit.util.Tagged;
 
 import java.util.List;
 
@@ -18,30 +26,80 @@ public class BookingController {
         return bookingService.add(newBookingDto, bookerId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> addBookings(@RequestBody List<NewBookingDto> newBookingDtos,
+                                                   @RequestHeader("X-Sharer-User-Id") Long bookerId) {
+        return bookingService.addAll(newBookingDtos, bookerId);
+    }
+
+    @PatchMapping("/approve")
+    public BookingApprovalResultDto approveBookings(@RequestBody List<Long> bookingIds, @RequestParam boolean approved,
+                                                    @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        return bookingService.approveBookings(bookingIds, approved, ownerId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto approveBooking(@PathVariable long bookingId, @RequestParam boolean approved,
                                      @RequestHeader("X-Sharer-User-Id") Long ownerId) {
         return bookingService.approveBooking(bookingId, approved, ownerId);
     }
 
+    // Значения для вкладок ALL/CURRENT/PAST/FUTURE/WAITING/REJECTED/EXPIRED одним запросом
+    @GetMapping("/summary")
+    public BookingSummaryDto getBookerSummary(@RequestHeader("X-Sharer-User-Id") Long bookerId) {
+        return bookingService.summarizeByBookerId(bookerId);
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getOwnerSummary(@RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        return bookingService.summarizeByOwnerId(ownerId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingInfo(@PathVariable long bookingId, @RequestHeader("X-Sharer-User-Id") Long userId) {
         return bookingService.findByOwnerIdOrBookerId(bookingId, userId);
     }
 
+    // Без cursor работает постранично через from/size, с cursor (пустым для первой страницы) - по курсору
     @GetMapping
-    public List<BookingDto> getBookerBookings(@RequestHeader("X-Sharer-User-Id") Long bookerId,
-                                              @RequestParam(required = false, defaultValue = "ALL") BookingState state,
-                                              @RequestParam(defaultValue = "0") int from,
-                                              @RequestParam(defaultValue = "10") int size) {
-        return bookingService.findAllByBookerIdAndBookingState(bookerId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getBookerBookings(@RequestHeader("X-Sharer-User-Id") Long bookerId,
+                                                              @RequestParam(required = false, defaultValue = "ALL") BookingState state,
+                                                              @RequestParam(defaultValue = "0") int from,
+                                                              @RequestParam(defaultValue = "10") int size,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ConditionalRequest conditional = new ConditionalRequest(ifNoneMatch);
+        if (cursor == null) {
+            return conditional.respond(bookingService.findTaggedByBookerIdAndBookingState(bookerId, state, from, size));
+        }
+        return withNextCursor(bookingService.findTaggedByBookerIdAndBookingState(bookerId, state,
+                KeysetCursor.decode(cursor), size), size, conditional);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                             @RequestParam(required = false, defaultValue = "ALL") BookingState state,
-                                             @RequestParam(defaultValue = "0") int from,
-                                             @RequestParam(defaultValue = "10") int size) {
-        return bookingService.findAllByOwnerIdAndBookingState(ownerId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                             @RequestParam(required = false, defaultValue = "ALL") BookingState state,
+                                                             @RequestParam(defaultValue = "0") int from,
+                                                             @RequestParam(defaultValue = "10") int size,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ConditionalRequest conditional = new ConditionalRequest(ifNoneMatch);
+        if (cursor == null) {
+            return conditional.respond(bookingService.findTaggedByOwnerIdAndBookingState(ownerId, state, from, size));
+        }
+        return withNextCursor(bookingService.findTaggedByOwnerIdAndBookingState(ownerId, state,
+                KeysetCursor.decode(cursor), size), size, conditional);
+    }
+
+    private ResponseEntity<List<BookingDto>> withNextCursor(Tagged<List<BookingDto>> tagged, int size,
+                                                            ConditionalRequest conditional) {
+        return conditional.respond(tagged, bookings -> {
+            HttpHeaders headers = new HttpHeaders();
+            if (bookings.size() == size) {
+                BookingDto last = bookings.get(bookings.size() - 1);
+                headers.set(KeysetCursor.NEXT_CURSOR_HEADER, new KeysetCursor(last.getStart(), last.getId()).encode());
+            }
+            return headers;
+        });
     }
 }
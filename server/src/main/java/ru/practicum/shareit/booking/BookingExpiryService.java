@@ -0,0 +1,40 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Переводит в EXPIRED ожидающие бронирования, начало которых наступило без ответа владельца.
+ * Каждая порция обрабатывается в отдельной транзакции, чтобы блокировки строк держались недолго.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class BookingExpiryService {
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+
+    // Возвращает число просроченных в порции бронирований
+    @Transactional
+    public int expireChunk(LocalDateTime now, int chunkSize) {
+        List<Booking> expiring = bookingRepository.findForUpdateByStatusAndStartLessThanEqual(BookingStatus.WAITING,
+                now, PageRequest.of(0, chunkSize));
+        if (expiring.isEmpty()) {
+            return 0;
+        }
+        List<Long> bookingIds = expiring.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+        bookingRepository.updateStatus(bookingIds, BookingStatus.EXPIRED, BookingStatus.WAITING);
+        expiring.forEach(booking -> bookingIntervalIndex.remove(booking.getItem().getId(), booking));
+        itemAvailabilityIndex.release(expiring);
+        return bookingIds.size();
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Периодически просрочивает ожидающие бронирования порциями по batch-size,
+ * не больше max-batches-per-run порций за запуск; остаток дойдет в следующий запуск.
+ * Длительность запусков и число просроченных за запуск бронирований публикуются в метриках.
+ */
+@Slf4j
+@Component
+public class BookingExpirySweeper {
+    private final BookingExpiryService expiryService;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Timer runTimer;
+    private final DistributionSummary expiredPerRun;
+
+    public BookingExpirySweeper(BookingExpiryService expiryService, MeterRegistry meterRegistry,
+                                @Value("${shareit.booking-expiry.batch-size:500}") int batchSize,
+                                @Value("${shareit.booking-expiry.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.expiryService = expiryService;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.runTimer = Timer.builder("shareit.booking.expiry.run")
+                .description("Длительность запуска просрочки бронирований")
+                .register(meterRegistry);
+        this.expiredPerRun = DistributionSummary.builder("shareit.booking.expiry.expired")
+                .description("Число просроченных за запуск бронирований")
+                .baseUnit("bookings")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-expiry.sweep-delay:60000}",
+            initialDelayString = "${shareit.booking-expiry.sweep-delay:60000}")
+    public void run() {
+        sweep();
+    }
+
+    // Возвращает число просроченных за запуск бронирований
+    public int sweep() {
+        long startedAt = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        int batches = 0;
+        int expiredInBatch;
+        do {
+            expiredInBatch = expiryService.expireChunk(now, batchSize);
+            expired += expiredInBatch;
+            batches++;
+        } while (expiredInBatch == batchSize && batches < maxBatchesPerRun);
+        long elapsedNanos = System.nanoTime() - startedAt;
+        runTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        expiredPerRun.record(expired);
+        if (expired > 0) {
+            log.info("Просрочено {} бронирований за {} мс, порций: {}", expired,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), batches);
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,179 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Индекс действующих периодов бронирования по предметам.
+ * Периоды предмета загружаются из базы при первом обращении и дальше поддерживаются
+ * при создании и отклонении бронирований, поэтому проверка пересечений не ходит в базу.
+ * Число предметов ограничено max-items, давно не нужные предметы вытесняются, а периоды
+ * каждого предмета перечитываются из базы не реже чем раз в reload-after: так в индекс попадают
+ * бронирования других экземпляров и изменения, сделанные в базе напрямую.
+ * Индекс видит и незафиксированные бронирования этого экземпляра и служит только предварительной
+ * проверкой: окончательно пересечения отсекает ограничение ex_bookings_item_period.
+ */
+@Component
+public class BookingIntervalIndex {
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, ItemIntervals> items;
+
+    @Autowired
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.interval-index.max-items:10000}") long maxItems,
+                                @Value("${shareit.booking.interval-index.expire-after-access:600000}") long expireAfterAccessMillis,
+                                @Value("${shareit.booking.interval-index.reload-after:60000}") long reloadAfterMillis) {
+        this(bookingRepository, maxItems, expireAfterAccessMillis, reloadAfterMillis, Ticker.systemTicker());
+    }
+
+    BookingIntervalIndex(BookingRepository bookingRepository, long maxItems, long expireAfterAccessMillis,
+                         long reloadAfterMillis, Ticker ticker) {
+        this.bookingRepository = bookingRepository;
+        this.items = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfterAccess(expireAfterAccessMillis, TimeUnit.MILLISECONDS)
+                .expireAfterWrite(reloadAfterMillis, TimeUnit.MILLISECONDS)
+                .ticker(ticker)
+                .build();
+    }
+
+    // Быстрая предварительная проверка; занимать период нужно через tryAdd, который проверяет повторно
+    public boolean hasOverlap(long itemId, LocalDateTime start, LocalDateTime end) {
+        return intervalsOf(itemId).hasOverlap(start, end);
+    }
+
+    // Загружает периоды еще не проиндексированных предметов одним запросом
+    public void preload(Collection<Long> itemIds) {
+        List<Long> missing = itemIds.stream()
+                .filter(itemId -> items.getIfPresent(itemId) == null)
+                .distinct()
+                .collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<Long, ItemIntervals> loaded = missing.stream()
+                .collect(Collectors.toMap(itemId -> itemId, itemId -> new ItemIntervals()));
+        bookingRepository.findByItemIdInAndEndAfter(missing, LocalDateTime.now()).stream()
+                .filter(b -> b.getStatus().holdsPeriod())
+                .forEach(b -> loaded.get(b.getItem().getId()).add(new Interval(b.getId(), b.getStart(), b.getEnd())));
+        loaded.forEach(items.asMap()::putIfAbsent);
+    }
+
+    // Проверка пересечения и добавление выполняются под блокировкой предмета, поэтому из двух
+    // параллельных бронирований одного периода период получает только одно. При откате транзакции
+    // период освобождается; false - период уже занят.
+    public boolean tryAdd(long itemId, Booking booking) {
+        if (!booking.getStatus().holdsPeriod()) {
+            return true;
+        }
+        ItemIntervals intervals = intervalsOf(itemId);
+        Interval interval = new Interval(booking.getId(), booking.getStart(), booking.getEnd());
+        if (!intervals.addIfFree(interval)) {
+            return false;
+        }
+        TransactionHooks.afterRollback(() -> intervals.remove(interval));
+        return true;
+    }
+
+    // Освобождает период, занятый tryAdd, когда бронирование не сохранилось, а транзакция продолжается
+    void cancel(long itemId, Booking booking) {
+        ItemIntervals intervals = items.getIfPresent(itemId);
+        if (intervals != null) {
+            intervals.removeBooking(booking.getId());
+        }
+    }
+
+    public void remove(long itemId, Booking booking) {
+        ItemIntervals intervals = items.getIfPresent(itemId);
+        if (intervals == null) {
+            return;
+        }
+        // Поиск по id: начало, прочитанное из базы, может быть округлено относительно проиндексированного
+        Interval interval = intervals.removeBooking(booking.getId());
+        if (interval != null) {
+            TransactionHooks.afterRollback(() -> intervals.add(interval));
+        }
+    }
+
+    // Незафиксированные периоды этого экземпляра при перечитывании теряются; пересечение с ними
+    // тогда отсечет ограничение в базе
+    private ItemIntervals intervalsOf(long itemId) {
+        return items.get(itemId, id -> {
+            ItemIntervals loaded = new ItemIntervals();
+            bookingRepository.findByItemIdAndEndAfter(id, LocalDateTime.now()).stream()
+                    .filter(b -> b.getStatus().holdsPeriod())
+                    .forEach(b -> loaded.add(new Interval(b.getId(), b.getStart(), b.getEnd())));
+            return loaded;
+        });
+    }
+
+    @AllArgsConstructor
+    private static class Interval {
+        final Long bookingId;
+        final LocalDateTime start;
+        final LocalDateTime end;
+    }
+
+    // Периоды одного предмета, упорядоченные по началу. Сохраненные периоды не пересекаются,
+    // поэтому пересечение возможно только с периодом, начавшимся последним до конца нового.
+    private static class ItemIntervals {
+        private final NavigableSet<Interval> intervals = new TreeSet<>(Comparator
+                .comparing((Interval i) -> i.start)
+                .thenComparing(i -> i.bookingId, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        synchronized boolean hasOverlap(LocalDateTime start, LocalDateTime end) {
+            LocalDateTime now = LocalDateTime.now();
+            while (!intervals.isEmpty() && !intervals.first().end.isAfter(now)) {
+                intervals.pollFirst();
+            }
+            Interval candidate = intervals.lower(new Interval(null, end, null));
+            return candidate != null && candidate.end.isAfter(start);
+        }
+
+        synchronized boolean addIfFree(Interval interval) {
+            if (hasOverlap(interval.start, interval.end)) {
+                return false;
+            }
+            intervals.add(interval);
+            return true;
+        }
+
+        synchronized void add(Interval interval) {
+            intervals.add(interval);
+        }
+
+        synchronized void remove(Interval interval) {
+            intervals.remove(interval);
+        }
+
+        synchronized Interval removeBooking(Long bookingId) {
+            Iterator<Interval> iterator = intervals.iterator();
+            while (iterator.hasNext()) {
+                Interval interval = iterator.next();
+                if (Objects.equals(interval.bookingId, bookingId)) {
+                    iterator.remove();
+                    return interval;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.schema.RequiresIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Постраничный поиск бронирований по курсору (start, id) без подсчета общего количества.
+ * Условие курсора и условия состояний строятся один раз для арендатора и для владельца.
+ */
+public interface BookingKeysetRepository {
+    @RequiresIndex(table = "bookings", columns = {"booker_id", "start_date"})
+    @RequiresIndex(table = "bookings", columns = {"booker_id", "status", "start_date"})
+    List<Booking> findBookerBookingsAfterCursor(long bookerId, BookingState state, KeysetCursor cursor,
+                                                LocalDateTime now, int size);
+
+    @RequiresIndex(table = "items", columns = {"user_id"})
+    @RequiresIndex(table = "bookings", columns = {"item_id", "start_date"})
+    @RequiresIndex(table = "bookings", columns = {"item_id", "status", "start_date"})
+    List<Booking> findOwnerBookingsAfterCursor(long ownerId, BookingState state, KeysetCursor cursor,
+                                               LocalDateTime now, int size);
+}
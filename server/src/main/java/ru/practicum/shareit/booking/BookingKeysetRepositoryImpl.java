@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.KeysetCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+
+@RequiredArgsConstructor
+public class BookingKeysetRepositoryImpl implements BookingKeysetRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Booking> findBookerBookingsAfterCursor(long bookerId, BookingState state, KeysetCursor cursor,
+                                                       LocalDateTime now, int size) {
+        return findAfterCursor((booking, item) -> booking.get("booker").get("id"), bookerId, state, cursor, now, size);
+    }
+
+    @Override
+    public List<Booking> findOwnerBookingsAfterCursor(long ownerId, BookingState state, KeysetCursor cursor,
+                                                      LocalDateTime now, int size) {
+        return findAfterCursor((booking, item) -> item.get("owner").get("id"), ownerId, state, cursor, now, size);
+    }
+
+    // Предмет и арендатор загружаются тем же запросом: маппер обращается к обоим
+    @SuppressWarnings("unchecked")
+    private List<Booking> findAfterCursor(BiFunction<Root<Booking>, Join<Booking, Item>, Path<Long>> userId,
+                                          long id, BookingState state, KeysetCursor cursor, LocalDateTime now,
+                                          int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = (Join<Booking, Item>) booking.<Booking, Item>fetch("item");
+        booking.fetch("booker");
+        Path<LocalDateTime> start = booking.get("start");
+        Path<Long> bookingId = booking.get("id");
+        query.select(booking)
+                .where(cb.equal(userId.apply(booking, item), id),
+                        cb.or(cb.lessThan(start, cursor.getDate()),
+                                cb.and(cb.equal(start, cursor.getDate()), cb.lessThan(bookingId, cursor.getId()))),
+                        stateCondition(cb, booking, state, now))
+                .orderBy(cb.desc(start), cb.desc(bookingId));
+        return entityManager.createQuery(query)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    // Те же условия, что у постраничных запросов BookingRepository для каждого состояния
+    private static Predicate stateCondition(CriteriaBuilder cb, Root<Booking> booking, BookingState state,
+                                            LocalDateTime now) {
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<BookingStatus> status = booking.get("status");
+        switch (state) {
+            case CURRENT:
+                return cb.and(cb.lessThanOrEqualTo(start, now), cb.greaterThanOrEqualTo(end, now));
+            case PAST:
+                return cb.lessThan(end, now);
+            case FUTURE:
+                return cb.greaterThan(start, now);
+            case WAITING:
+                return cb.equal(status, BookingStatus.WAITING);
+            case REJECTED:
+                return cb.equal(status, BookingStatus.REJECTED);
+            case EXPIRED:
+                return cb.equal(status, BookingStatus.EXPIRED);
+            default:
+                return cb.conjunction();
+        }
+    }
+}
@@ -1,17 +1,40 @@
 package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.dto.ShortBookingDto;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.EntityTag;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
 public class BookingMapper {
+    // Состояние бронирования вместе с предметом и арендатором, которые попадают в dto
+    public static void addToTag(EntityTag tag, Booking booking) {
+        tag.add("booking", booking.getId(), booking.getVersion());
+        ItemMapper.addToTag(tag, booking.getItem());
+        UserMapper.addToTag(tag, booking.getBooker());
+    }
+
+    public static void addToTag(EntityTag tag, ItemBookingView booking) {
+        tag.add("booking", booking.getId(), booking.getVersion());
+        tag.add("user", booking.getBookerId(), booking.getBookerVersion());
+    }
+
+    public static EntityTag tagOf(Iterable<Booking> bookings) {
+        EntityTag tag = new EntityTag();
+        bookings.forEach(b -> addToTag(tag, b));
+        return tag;
+    }
+
 
     public static BookingDto mapToBookingDto(Booking booking) {
         return BookingDto.builder()
@@ -35,6 +58,26 @@ public class BookingMapper {
                 .build();
     }
 
+    public static ShortBookingDto mapToShortBookingDto(ItemBookingView booking, ItemDto item) {
+        return ShortBookingDto.builder()
+                .id(booking.getId())
+                .bookerId(booking.getBookerId())
+                .item(item)
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(booking.getStatus())
+                .build();
+    }
+
+    public static ItemBookingView mapToItemBookingView(Booking booking) {
+        if (booking == null) {
+            return null;
+        }
+        return new ItemBookingView(booking.getItem().getId(), booking.getId(), booking.getBooker().getId(),
+                booking.getBooker().getVersion(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getVersion());
+    }
+
     public static List<BookingDto> mapToBookingDto(Iterable<Booking> bookings) {
         List<BookingDto> bookingsDto = new ArrayList<>();
         for (Booking booking : bookings) {
@@ -43,13 +86,19 @@ public class BookingMapper {
         return bookingsDto;
     }
 
+    // Даты обрезаются до точности колонок timestamp, чтобы сущность в памяти совпадала с сохраненной:
+    // по ним строится курсор (start, id) и ищутся периоды в индексе
     public static Booking mapToBooking(NewBookingDto newBookingDto, User booker, Item item) {
         return Booking.builder()
                 .booker(booker)
                 .item(item)
-                .start(newBookingDto.getStart())
-                .end(newBookingDto.getEnd())
+                .start(toStoredPrecision(newBookingDto.getStart()))
+                .end(toStoredPrecision(newBookingDto.getEnd()))
                 .status(BookingStatus.WAITING)
                 .build();
     }
+
+    private static LocalDateTime toStoredPrecision(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.truncatedTo(ChronoUnit.MICROS) : null;
+    }
 }
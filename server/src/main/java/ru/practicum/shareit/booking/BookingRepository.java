@@ -2,78 +2,195 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.ItemPeriodView;
+import ru.practicum.shareit.booking.dto.PeriodDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.schema.RequiresIndex;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+// Списки бронирований загружают предмет и арендатора одним запросом: маппер обращается к обоим
 @Repository
-public interface BookingRepository extends CrudRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingKeysetRepository {
     @Query("select b " +
             "from Booking b " +
             "join b.item as i " +
             "join b.booker as br " +
             "where b.id = ?1 and " +
             "(br.id = ?2 or i.owner.id = ?2)")
+    @EntityGraph(attributePaths = {"item", "booker"})
     Booking findByOwnerIdOrBookerId(long bookingId, long userId);
 
+    // Строки блокируются до массового обновления статуса, поэтому список измененных точен.
+    // Блокировки берутся по возрастанию id: пересекающиеся пакеты не ждут друг друга по кругу
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b " +
+            "from Booking b " +
+            "where b.id in ?1 " +
+            "and b.item.owner.id = ?2 " +
+            "and b.status = ?3 " +
+            "order by b.id")
+    List<Booking> findForUpdateByIdInAndItemOwnerIdAndStatus(Collection<Long> bookingIds, long ownerId,
+                                                              BookingStatus status);
+
+    // Ожидающие бронирования, начало которых уже наступило, по порядку начала; строки блокируются до обновления.
+    // Строки, заблокированные другими транзакциями (подтверждение или другой экземпляр), пропускаются
+    // через SKIP LOCKED, а не ожидаются: они попадут в следующий прогон
+    @RequiresIndex(table = "bookings", columns = {"status", "start_date"})
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select b " +
+            "from Booking b " +
+            "where b.status = ?1 " +
+            "and b.start <= ?2 " +
+            "order by b.start")
+    List<Booking> findForUpdateByStatusAndStartLessThanEqual(BookingStatus status, LocalDateTime now, Pageable page);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b " +
+            "set b.status = ?2, b.version = b.version + 1 " +
+            "where b.id in ?1 " +
+            "and b.status = ?3")
+    int updateStatus(Collection<Long> bookingIds, BookingStatus status, BookingStatus currentStatus);
+
+    @RequiresIndex(table = "bookings", columns = {"item_id", "end_date"})
     List<Booking> findByItemIdAndEndAfter(long itemId, LocalDateTime now);
 
-    List<Booking> findByItemIdAndBookerIdAndStatusNotAndEndBefore(long itemId, long bookerId, BookingStatus status, LocalDateTime now);
+    // Периоды бронирований предмета, пересекающие [from, to), в порядке начала
+    @RequiresIndex(table = "bookings", columns = {"item_id", "end_date"})
+    @Query("select new ru.practicum.shareit.booking.dto.PeriodDto(b.start, b.end) " +
+            "from Booking b " +
+            "where b.item.id = ?1 " +
+            "and b.status not in ?2 " +
+            "and b.end > ?3 " +
+            "and b.start < ?4 " +
+            "order by b.start")
+    List<PeriodDto> findPeriodsByItemId(long itemId, Collection<BookingStatus> excludedStatuses, LocalDateTime from,
+                                        LocalDateTime to);
+
+    @RequiresIndex(table = "bookings", columns = {"item_id", "end_date"})
+    @Query("select new ru.practicum.shareit.booking.dto.ItemPeriodView(b.item.id, b.start, b.end) " +
+            "from Booking b " +
+            "where b.item.id in ?1 " +
+            "and b.status not in ?2 " +
+            "and b.end > ?3 " +
+            "and b.start < ?4")
+    List<ItemPeriodView> findPeriodsByItemIdIn(Collection<Long> itemIds, Collection<BookingStatus> excludedStatuses,
+                                               LocalDateTime from, LocalDateTime to);
 
-    //Находим последнее и ближайшее будущее бронирования
-    @Query("select b " +
-            "from Booking b" +
-            " where b.item.id in ?1" +
-            " and b.status <> 'REJECTED'" +
-            " and(b.start = " +
-            "           (select max(b2.start) " +
-            "                   from Booking b2 " +
-            "                   where b2.item.id in ?1 and b2.start <= ?2)" +
-            " or b.start = " +
-            "           (select min(b3.start) " +
-            "           from Booking b3 " +
-            "           where b3.item.id in ?1 and b3.start > ?2))")
-    List<Booking> findLastAndNearFutureBookingsByItemIn(Collection<Long> itemIds, LocalDateTime now, Sort sort);
+    @RequiresIndex(table = "bookings", columns = {"item_id", "end_date"})
+    List<Booking> findByItemIdInAndEndAfter(Collection<Long> itemIds, LocalDateTime now);
+
+    @RequiresIndex(table = "bookings", columns = {"item_id", "booker_id", "end_date"})
+    List<Booking> findByItemIdAndBookerIdAndStatusNotInAndEndBefore(long itemId, long bookerId,
+                                                                    Collection<BookingStatus> statuses, LocalDateTime now);
+
+    // Последнее начавшееся и ближайшее будущее бронирования предмета с заданным статусом
+    @RequiresIndex(table = "bookings", columns = {"item_id", "start_date"})
+    Optional<Booking> findFirstByItemIdAndStatusAndStartLessThanEqualOrderByStartDesc(
+            long itemId, BookingStatus status, LocalDateTime now);
+
+    @RequiresIndex(table = "bookings", columns = {"item_id", "start_date"})
+    Optional<Booking> findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(
+            long itemId, BookingStatus status, LocalDateTime now);
 
     // Поиск всех бронирований заказчика
+    @RequiresIndex(table = "bookings", columns = {"booker_id", "start_date"})
+    @EntityGraph(attributePaths = {"item", "booker"})
     Page<Booking> findAllByBookerId(long bookerId, Pageable page); //ALL
 
+    @RequiresIndex(table = "bookings", columns = {"booker_id", "start_date"})
     @Query("select b " +
             "from Booking b " +
             "join b.booker as br " +
             "where br.id = ?1 " +
             "and b.start <= ?2" +
             "and b.end >= ?2 ")
+    @EntityGraph(attributePaths = {"item", "booker"})
     Page<Booking> findAllBookerCurrentBookings(long bookerId, LocalDateTime now, Pageable page); //Current
 
+    @RequiresIndex(table = "bookings", columns = {"booker_id", "start_date"})
+    @EntityGraph(attributePaths = {"item", "booker"})
     Page<Booking> findAllByBookerIdAndEndBefore(long bookerId, LocalDateTime now, Pageable page); //Past
 
+    @RequiresIndex(table = "bookings", columns = {"booker_id", "start_date"})
+    @EntityGraph(attributePaths = {"item", "booker"})
     Page<Booking> findAllByBookerIdAndStartAfter(long bookerId, LocalDateTime now, Pageable page); //Future
 
+    @RequiresIndex(table = "bookings", columns = {"booker_id", "status", "start_date"})
+    @EntityGraph(attributePaths = {"item", "booker"})
     Page<Booking> findAllByBookerIdAndStatus(long bookerId, BookingStatus status, Pageable page); //Status
 
+    // Счетчики всех состояний одним проходом по бронированиям заказчика; условия те же, что в списках выше
+    @RequiresIndex(table = "bookings", columns = {"booker_id"})
+    @Query("select new ru.practicum.shareit.booking.dto.BookingSummaryDto(count(b), " +
+            "coalesce(sum(case when b.start <= ?2 and b.end >= ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.end < ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.start > ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.BookingStatus.WAITING then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.BookingStatus.REJECTED then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.BookingStatus.EXPIRED then 1 else 0 end), 0)) " +
+            "from Booking b " +
+            "where b.booker.id = ?1")
+    BookingSummaryDto summarizeByBookerId(long bookerId, LocalDateTime now);
+
     //Конец блока
 
     // Поиск бронирований для владельца
+    @RequiresIndex(table = "items", columns = {"user_id"})
+    @RequiresIndex(table = "bookings", columns = {"item_id", "start_date"})
+    @EntityGraph(attributePaths = {"item", "booker"})
     Page<Booking> findAllByItemOwnerId(long ownerId, Pageable page); //ALL
 
+    @RequiresIndex(table = "items", columns = {"user_id"})
+    @RequiresIndex(table = "bookings", columns = {"item_id", "start_date"})
     @Query("select b " +
             "from Booking b " +
             "join b.item as i " +
             "where i.owner.id = ?1 " +
             "and b.start <= ?2" +
             "and b.end >= ?2 ")
+    @EntityGraph(attributePaths = {"item", "booker"})
     Page<Booking> findAllOwnerCurrentBookings(long bookerId, LocalDateTime now, Pageable page); //Current
 
+    @RequiresIndex(table = "items", columns = {"user_id"})
+    @RequiresIndex(table = "bookings", columns = {"item_id", "start_date"})
+    @EntityGraph(attributePaths = {"item", "booker"})
     Page<Booking> findAllByItemOwnerIdAndEndBefore(long bookerId, LocalDateTime now, Pageable page); //Past
 
+    @RequiresIndex(table = "items", columns = {"user_id"})
+    @RequiresIndex(table = "bookings", columns = {"item_id", "start_date"})
+    @EntityGraph(attributePaths = {"item", "booker"})
     Page<Booking> findAllByItemOwnerIdAndStartAfter(long bookerId, LocalDateTime now, Pageable page); //Future
 
+    @RequiresIndex(table = "items", columns = {"user_id"})
+    @RequiresIndex(table = "bookings", columns = {"item_id", "status", "start_date"})
+    @EntityGraph(attributePaths = {"item", "booker"})
     Page<Booking> findAllByItemOwnerIdAndStatus(long bookerId, BookingStatus status, Pageable page); //Future
+
+    @RequiresIndex(table = "items", columns = {"user_id"})
+    @RequiresIndex(table = "bookings", columns = {"item_id"})
+    @Query("select new ru.practicum.shareit.booking.dto.BookingSummaryDto(count(b), " +
+            "coalesce(sum(case when b.start <= ?2 and b.end >= ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.end < ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.start > ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.BookingStatus.WAITING then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.BookingStatus.REJECTED then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.BookingStatus.EXPIRED then 1 else 0 end), 0)) " +
+            "from Booking b " +
+            "where b.item.owner.id = ?1")
+    BookingSummaryDto summarizeByOwnerId(long ownerId, LocalDateTime now);
     //Конец блока
 }
@@ -1,19 +1,40 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.util.Tagged;
 
 import java.util.List;
 
 public interface BookingService {
     BookingDto add(NewBookingDto newBookingDto, long bookerId);
 
+    // Результаты возвращаются в порядке позиций запроса
+    List<BookingBatchResultDto> addAll(List<NewBookingDto> newBookingDtos, long bookerId);
+
     BookingDto approveBooking(long bookingId, boolean isApproved, long ownerId);
 
+    // Меняет статус только ожидающих бронирований предметов владельца, остальные id возвращаются как пропущенные
+    BookingApprovalResultDto approveBookings(List<Long> bookingIds, boolean isApproved, long ownerId);
+
     BookingDto findByOwnerIdOrBookerId(long bookingId, long userId);
 
-    List<BookingDto> findAllByBookerIdAndBookingState(long bookerId, BookingState state, int from, int size);
+    BookingSummaryDto summarizeByBookerId(long bookerId);
+
+    BookingSummaryDto summarizeByOwnerId(long ownerId);
+
+    // Выборки вместе с ETag для условных запросов; тело строится при обращении к нему
+    Tagged<List<BookingDto>> findTaggedByBookerIdAndBookingState(long bookerId, BookingState state, int from, int size);
+
+    Tagged<List<BookingDto>> findTaggedByOwnerIdAndBookingState(long ownerId, BookingState state, int from, int size);
 
-    List<BookingDto> findAllByOwnerIdAndBookingState(long ownerId, BookingState state, int from, int size);
+    Tagged<List<BookingDto>> findTaggedByBookerIdAndBookingState(long bookerId, BookingState state, KeysetCursor cursor,
+                                                                 int size);
 
+    Tagged<List<BookingDto>> findTaggedByOwnerIdAndBookingState(long ownerId, BookingState state, KeysetCursor cursor,
+                                                                int size);
 }
@@ -1,34 +1,65 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.ItemPeriodView;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.exception.ObjectNotValidException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.user.UserIdIndex;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.Tagged;
 
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final String CROSSED_PERIODS_MESSAGE = "Имеются пересечения с периодами по существующим бронированиям";
+    // Ограничение PostgreSQL, запрещающее пересечения, и SQLSTATE exclusion_violation, которым оно срабатывает
+    private static final String PERIOD_CONSTRAINT = "ex_bookings_item_period";
+    private static final String EXCLUSION_VIOLATION = "23P01";
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final UserIdIndex userIdIndex;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemBookingPointerService bookingPointerService;
+    private final EntityManager entityManager;
 
     @Override
     @Transactional
@@ -38,15 +69,83 @@ public class BookingServiceImpl implements BookingService {
         if (item == null) {
             throw new ObjectNotFoundException(newBookingDto.getItemId());
         }
-        if (Objects.equals(booker.getId(), item.getOwner().getId())) {
-            throw new ObjectNotFoundException();
+        checkBookable(booker, item);
+        checkCrossedPeriods(newBookingDto);
+        Booking newBooking;
+        try {
+            // С идентификаторами из последовательности insert откладывается до flush, а id уже известен
+            newBooking = bookingRepository.save(BookingMapper.mapToBooking(newBookingDto, booker, item));
+            reservePeriod(newBookingDto.getItemId(), newBooking);
+            bookingRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw translateIntegrityViolation(e);
         }
-        if (!item.getAvailable()) {
-            throw new BadRequestException("Предмет недоступен для бронирования");
+        itemAvailabilityIndex.occupy(List.of(newBooking));
+        return BookingMapper.mapToBookingDto(newBooking);
+    }
+
+    // Пересечения с базой проверяются одним запросом по всем предметам пакета, внутри пакета - в памяти.
+    // Принятые позиции вставляются одним flush пакетами hibernate.jdbc.batch_size. Только если период
+    // успело занять параллельное бронирование, позиции вставляются по одной под своими точками сохранения:
+    // тогда отказ базы становится итогом своей позиции и не откатывает остальные.
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> addAll(List<NewBookingDto> newBookingDtos, long bookerId) {
+        User booker = doesUserExist(bookerId);
+        Set<Long> itemIds = newBookingDtos.stream()
+                .map(NewBookingDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = StreamSupport.stream(itemRepository.findAllById(itemIds).spliterator(), false)
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        bookingIntervalIndex.preload(items.keySet());
+        Map<Long, List<ItemPeriodView>> busyPeriods = findBusyPeriods(items.keySet(), newBookingDtos);
+
+        List<BookingBatchResultDto> results = new ArrayList<>(newBookingDtos.size());
+        Map<Integer, Booking> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < newBookingDtos.size(); i++) {
+            NewBookingDto newBookingDto = newBookingDtos.get(i);
+            BookingBatchResultDto result = BookingBatchResultDto.builder()
+                    .index(i)
+                    .itemId(newBookingDto.getItemId())
+                    .build();
+            try {
+                Item item = items.get(newBookingDto.getItemId());
+                if (item == null) {
+                    throw new ObjectNotFoundException(newBookingDto.getItemId());
+                }
+                validateBookingPeriod(newBookingDto);
+                checkBookable(booker, item);
+                Booking booking = BookingMapper.mapToBooking(newBookingDto, booker, item);
+                // Принятая позиция сразу занимает период, поэтому пересечения внутри пакета тоже отсекаются
+                List<ItemPeriodView> busy = busyPeriods.computeIfAbsent(item.getId(), id -> new ArrayList<>());
+                if (busy.stream().anyMatch(period -> period.overlaps(booking.getStart(), booking.getEnd()))) {
+                    throw new BadRequestException(CROSSED_PERIODS_MESSAGE);
+                }
+                busy.add(new ItemPeriodView(item.getId(), booking.getStart(), booking.getEnd()));
+                accepted.put(i, booking);
+            } catch (ObjectNotFoundException | BadRequestException | ObjectNotValidException e) {
+                result.setError(e.getMessage());
+            }
+            results.add(result);
         }
-        checkCrossedPeriods(newBookingDto);
-        Booking newBooking = BookingMapper.mapToBooking(newBookingDto, booker, item);
-        return BookingMapper.mapToBookingDto(bookingRepository.save(newBooking));
+
+        if (!insertAll(accepted.values())) {
+            accepted.replaceAll((i, booking) -> BookingMapper.mapToBooking(newBookingDtos.get(i), booker,
+                    booking.getItem()));
+            accepted.entrySet().removeIf(entry -> {
+                try {
+                    insertInSavepoint(entry.getValue());
+                    return false;
+                } catch (BadRequestException e) {
+                    results.get(entry.getKey()).setError(e.getMessage());
+                    return true;
+                }
+            });
+        }
+        accepted.forEach((i, booking) -> results.get(i).setBooking(BookingMapper.mapToBookingDto(booking)));
+        itemAvailabilityIndex.occupy(accepted.values());
+        return results;
     }
 
     @Override
@@ -62,10 +161,47 @@ public class BookingServiceImpl implements BookingService {
             throw new ObjectNotValidException("Невозможно сменить статус");
         }
         booking.setStatus(status);
+        if (status == BookingStatus.REJECTED) {
+            bookingIntervalIndex.remove(booking.getItem().getId(), booking);
+            itemAvailabilityIndex.release(List.of(booking));
+        } else {
+            bookingPointerService.onBookingsApproved(List.of(booking));
+            itemAvailabilityIndex.occupy(List.of(booking));
+        }
 
         return BookingMapper.mapToBookingDto(bookingRepository.save(booking));
     }
 
+    @Override
+    @Transactional
+    public BookingApprovalResultDto approveBookings(List<Long> bookingIds, boolean isApproved, long ownerId) {
+        BookingStatus status = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        userIdIndex.requireExists(ownerId);
+        Set<Long> requested = new LinkedHashSet<>(bookingIds);
+        List<Booking> waiting = requested.isEmpty() ? List.of() : bookingRepository
+                .findForUpdateByIdInAndItemOwnerIdAndStatus(requested, ownerId, BookingStatus.WAITING);
+        List<Long> updated = waiting.stream()
+                .map(Booking::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        if (!updated.isEmpty()) {
+            bookingRepository.updateStatus(updated, status, BookingStatus.WAITING);
+            if (status == BookingStatus.REJECTED) {
+                waiting.forEach(booking -> bookingIntervalIndex.remove(booking.getItem().getId(), booking));
+                itemAvailabilityIndex.release(waiting);
+            } else {
+                bookingPointerService.onBookingsApproved(waiting);
+                itemAvailabilityIndex.occupy(waiting);
+            }
+        }
+        requested.removeAll(updated);
+        return BookingApprovalResultDto.builder()
+                .status(status)
+                .updated(updated)
+                .skipped(new ArrayList<>(requested))
+                .build();
+    }
+
     @Override
     public BookingDto findByOwnerIdOrBookerId(long bookingId, long userId) {
         Booking booking = bookingRepository.findByOwnerIdOrBookerId(bookingId, userId);
@@ -76,80 +212,224 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> findAllByBookerIdAndBookingState(long bookerId, BookingState state, int from, int size) {
-        List<BookingDto> bookingsDto = new ArrayList<>();
-        doesUserExist(bookerId);
+    public BookingSummaryDto summarizeByBookerId(long bookerId) {
+        userIdIndex.requireExists(bookerId);
+        return bookingRepository.summarizeByBookerId(bookerId, LocalDateTime.now());
+    }
+
+    @Override
+    public BookingSummaryDto summarizeByOwnerId(long ownerId) {
+        userIdIndex.requireExists(ownerId);
+        return bookingRepository.summarizeByOwnerId(ownerId, LocalDateTime.now());
+    }
+
+    @Override
+    public Tagged<List<BookingDto>> findTaggedByBookerIdAndBookingState(long bookerId, BookingState state, int from, int size) {
+        Iterable<Booking> bookings = new ArrayList<>();
+        userIdIndex.requireExists(bookerId);
         PageRequest page = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
         switch (state) {
             case ALL:
-                bookingsDto = BookingMapper.mapToBookingDto(bookingRepository.findAllByBookerId(bookerId, page));
+                bookings = bookingRepository.findAllByBookerId(bookerId, page);
                 break;
             case CURRENT:
-                bookingsDto = BookingMapper.mapToBookingDto(bookingRepository.findAllBookerCurrentBookings(bookerId, LocalDateTime.now(), page));
+                bookings = bookingRepository.findAllBookerCurrentBookings(bookerId, LocalDateTime.now(), page);
                 break;
             case PAST:
-                bookingsDto = BookingMapper.mapToBookingDto(bookingRepository.findAllByBookerIdAndEndBefore(bookerId, LocalDateTime.now(), page));
+                bookings = bookingRepository.findAllByBookerIdAndEndBefore(bookerId, LocalDateTime.now(), page);
                 break;
             case FUTURE:
-                bookingsDto = BookingMapper.mapToBookingDto(bookingRepository.findAllByBookerIdAndStartAfter(bookerId, LocalDateTime.now(), page));
+                bookings = bookingRepository.findAllByBookerIdAndStartAfter(bookerId, LocalDateTime.now(), page);
                 break;
             case WAITING:
-                bookingsDto = BookingMapper.mapToBookingDto(bookingRepository.findAllByBookerIdAndStatus(bookerId, BookingStatus.WAITING, page));
+                bookings = bookingRepository.findAllByBookerIdAndStatus(bookerId, BookingStatus.WAITING, page);
                 break;
             case REJECTED:
-                bookingsDto = BookingMapper.mapToBookingDto(bookingRepository.findAllByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, page));
+                bookings = bookingRepository.findAllByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, page);
+                break;
+            case EXPIRED:
+                bookings = bookingRepository.findAllByBookerIdAndStatus(bookerId, BookingStatus.EXPIRED, page);
                 break;
         }
-        return bookingsDto;
+        return tagged(bookings);
     }
 
     @Override
-    public List<BookingDto> findAllByOwnerIdAndBookingState(long ownerId, BookingState state, int from, int size) {
-        List<BookingDto> bookingsDto = new ArrayList<>();
-        doesUserExist(ownerId);
+    public Tagged<List<BookingDto>> findTaggedByOwnerIdAndBookingState(long ownerId, BookingState state, int from, int size) {
+        Iterable<Booking> bookings = new ArrayList<>();
+        userIdIndex.requireExists(ownerId);
         PageRequest page = PageRequest.of(from / size, size, Sort.by("start").descending());
         switch (state) {
             case ALL:
-                bookingsDto = BookingMapper.mapToBookingDto(bookingRepository.findAllByItemOwnerId(ownerId, page));
+                bookings = bookingRepository.findAllByItemOwnerId(ownerId, page);
                 break;
             case CURRENT:
-                bookingsDto = BookingMapper.mapToBookingDto(bookingRepository.findAllOwnerCurrentBookings(ownerId, LocalDateTime.now(), page));
+                bookings = bookingRepository.findAllOwnerCurrentBookings(ownerId, LocalDateTime.now(), page);
                 break;
             case PAST:
-                bookingsDto = BookingMapper.mapToBookingDto(bookingRepository.findAllByItemOwnerIdAndEndBefore(ownerId, LocalDateTime.now(), page));
+                bookings = bookingRepository.findAllByItemOwnerIdAndEndBefore(ownerId, LocalDateTime.now(), page);
                 break;
             case FUTURE:
-                bookingsDto = BookingMapper.mapToBookingDto(bookingRepository.findAllByItemOwnerIdAndStartAfter(ownerId, LocalDateTime.now(), page));
+                bookings = bookingRepository.findAllByItemOwnerIdAndStartAfter(ownerId, LocalDateTime.now(), page);
                 break;
             case WAITING:
-                bookingsDto = BookingMapper.mapToBookingDto(bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, page));
+                bookings = bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, page);
                 break;
             case REJECTED:
-                bookingsDto = BookingMapper.mapToBookingDto(bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, page));
+                bookings = bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, page);
+                break;
+            case EXPIRED:
+                bookings = bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.EXPIRED, page);
                 break;
         }
-        return bookingsDto;
+        return tagged(bookings);
+    }
+
+    @Override
+    public Tagged<List<BookingDto>> findTaggedByBookerIdAndBookingState(long bookerId, BookingState state, KeysetCursor cursor, int size) {
+        userIdIndex.requireExists(bookerId);
+        List<Booking> bookings = bookingRepository.findBookerBookingsAfterCursor(bookerId, state, cursor,
+                LocalDateTime.now(), size);
+        return tagged(bookings);
+    }
+
+    @Override
+    public Tagged<List<BookingDto>> findTaggedByOwnerIdAndBookingState(long ownerId, BookingState state, KeysetCursor cursor, int size) {
+        userIdIndex.requireExists(ownerId);
+        List<Booking> bookings = bookingRepository.findOwnerBookingsAfterCursor(ownerId, state, cursor,
+                LocalDateTime.now(), size);
+        return tagged(bookings);
+    }
+
+    // ETag считается сразу, а DTO строятся, только если клиенту нужно тело
+    private static Tagged<List<BookingDto>> tagged(Iterable<Booking> bookings) {
+        return Tagged.of(BookingMapper.tagOf(bookings), () -> BookingMapper.mapToBookingDto(bookings));
     }
 
     private void validateBookingPeriod(NewBookingDto newBookingDto) {
         LocalDateTime start = newBookingDto.getStart();
         LocalDateTime end = newBookingDto.getEnd();
+        if (start == null || end == null) {
+            throw new ObjectNotValidException("Даты начала и конца бронирования обязательны");
+        }
         if (!start.isBefore(end)) {
             throw new ObjectNotValidException("Дата начала не может быть равна или позже даты конца");
         }
     }
 
+    private void checkBookable(User booker, Item item) {
+        if (Objects.equals(booker.getId(), item.getOwner().getId())) {
+            throw new ObjectNotFoundException();
+        }
+        if (!item.getAvailable()) {
+            throw new BadRequestException("Предмет недоступен для бронирования");
+        }
+    }
+
+    // Предварительная проверка до обращения к базе; окончательно период занимает reservePeriod
     private void checkCrossedPeriods(NewBookingDto newBookingDto) {
-        LocalDateTime start = newBookingDto.getStart();
-        LocalDateTime end = newBookingDto.getEnd();
-        List<Booking> bookings = bookingRepository.findByItemIdAndEndAfter(newBookingDto.getItemId(), LocalDateTime.now());
-        boolean haveCrossPeriods = bookings.stream()
-                .anyMatch(b
-                        -> start.isAfter(b.getStart()) && start.isBefore(b.getEnd())
-                        || end.isAfter(b.getStart()) && end.isBefore(b.getEnd()));
-        if (haveCrossPeriods) {
-            throw new BadRequestException("Имеются пересечения с периодами по существующим бронированиям");
+        if (bookingIntervalIndex.hasOverlap(newBookingDto.getItemId(), newBookingDto.getStart(), newBookingDto.getEnd())) {
+            throw new BadRequestException(CROSSED_PERIODS_MESSAGE);
+        }
+    }
+
+    // Параллельное бронирование могло занять период после предварительной проверки. Бронирование еще
+    // не вставлено, поэтому исключение откатывает его вместе с транзакцией или точкой сохранения.
+    private void reservePeriod(long itemId, Booking booking) {
+        if (!bookingIntervalIndex.tryAdd(itemId, booking)) {
+            throw new BadRequestException(CROSSED_PERIODS_MESSAGE);
+        }
+    }
+
+    // Периоды, занятые в базе бронированиями предметов пакета, в границах всех запрошенных периодов
+    private Map<Long, List<ItemPeriodView>> findBusyPeriods(Set<Long> itemIds, List<NewBookingDto> newBookingDtos) {
+        Optional<LocalDateTime> from = newBookingDtos.stream()
+                .map(NewBookingDto::getStart)
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo);
+        Optional<LocalDateTime> to = newBookingDtos.stream()
+                .map(NewBookingDto::getEnd)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo);
+        if (itemIds.isEmpty() || from.isEmpty() || to.isEmpty()) {
+            return new HashMap<>();
+        }
+        return bookingRepository.findPeriodsByItemIdIn(itemIds, BookingStatus.RELEASED, from.get(), to.get()).stream()
+                .collect(Collectors.groupingBy(ItemPeriodView::getItemId, HashMap::new, Collectors.toList()));
+    }
+
+    // Все бронирования вставляются одним flush под общей точкой сохранения. false - период одного из них
+    // занял параллельный запрос: пакет откачен до точки сохранения, бронирования убраны из контекста
+    // персистентности и из индекса. Остальные ошибки базы пробрасываются.
+    private boolean insertAll(Collection<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return true;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+        try {
+            for (Booking booking : bookings) {
+                bookingRepository.save(booking);
+                reservePeriod(booking.getItem().getId(), booking);
+            }
+            bookingRepository.flush();
+            session.doWork(connection -> connection.releaseSavepoint(savepoint));
+            return true;
+        } catch (BadRequestException | DataIntegrityViolationException e) {
+            session.doWork(connection -> connection.rollback(savepoint));
+            for (Booking booking : bookings) {
+                entityManager.detach(booking);
+                bookingIntervalIndex.cancel(booking.getItem().getId(), booking);
+            }
+            RuntimeException cause = e instanceof DataIntegrityViolationException
+                    ? translateIntegrityViolation((DataIntegrityViolationException) e) : e;
+            if (cause instanceof BadRequestException) {
+                return false;
+            }
+            throw cause;
+        }
+    }
+
+    // Ошибка вставки откатывает только точку сохранения; бронирование убирается из контекста персистентности,
+    // иначе Hibernate попытается вставить его снова при следующем flush, и освобождает занятый период
+    private Booking insertInSavepoint(Booking booking) {
+        Session session = entityManager.unwrap(Session.class);
+        Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+        try {
+            Booking saved = bookingRepository.save(booking);
+            reservePeriod(saved.getItem().getId(), saved);
+            bookingRepository.flush();
+            session.doWork(connection -> connection.releaseSavepoint(savepoint));
+            return saved;
+        } catch (RuntimeException e) {
+            session.doWork(connection -> connection.rollback(savepoint));
+            entityManager.detach(booking);
+            bookingIntervalIndex.cancel(booking.getItem().getId(), booking);
+            throw e instanceof DataIntegrityViolationException
+                    ? translateIntegrityViolation((DataIntegrityViolationException) e) : e;
+        }
+    }
+
+    // Параллельное бронирование того же периода отсекает ограничение ex_bookings_item_period - это ошибка клиента.
+    // Остальные нарушения целостности (внешние ключи, not null) пробрасываются как есть.
+    private static RuntimeException translateIntegrityViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && violatesPeriodConstraint((SQLException) cause)) {
+                return new BadRequestException(CROSSED_PERIODS_MESSAGE);
+            }
+        }
+        return e;
+    }
+
+    // Ошибка пакетной вставки приходит как BatchUpdateException с исходной ошибкой в цепочке getNextException
+    private static boolean violatesPeriodConstraint(SQLException e) {
+        for (SQLException next = e; next != null; next = next.getNextException()) {
+            if (EXCLUSION_VIOLATION.equals(next.getSQLState()) && next.getMessage() != null
+                    && next.getMessage().contains(PERIOD_CONSTRAINT)) {
+                return true;
+            }
         }
+        return false;
     }
 
     private User doesUserExist(long userId) {
@@ -1,7 +1,19 @@
 package ru.practicum.shareit.booking;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum BookingStatus {
     WAITING,
     APPROVED,
-    REJECTED
+    REJECTED,
+    // Владелец не ответил до начала бронирования, статус выставляет BookingExpirySweeper
+    EXPIRED;
+
+    // Отклоненные и просроченные бронирования не занимают период предмета
+    public static final Set<BookingStatus> RELEASED = EnumSet.of(REJECTED, EXPIRED);
+
+    public boolean holdsPeriod() {
+        return !RELEASED.contains(this);
+    }
 }
@@ -0,0 +1,169 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.PeriodDto;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Карта занятости предметов для календаря доступности: по биту на каждый час каждого дня, начиная
+ * с полуночи дня загрузки, на COVERED_DAYS дней вперед. Час, который бронирование занимает хотя бы
+ * частично, считается занятым.
+ * <p>
+ * Карта предмета строится из базы при первом обращении и перечитывается через reload-after,
+ * так в нее попадают бронирования других экземпляров. Изменения этого экземпляра применяются только
+ * после фиксации транзакции: новые и подтвержденные бронирования отмечаются в карте, а отклоненные
+ * и просроченные сбрасывают карту предмета - освобожденный час мог быть занят и соседним бронированием,
+ * поэтому карта строится заново при следующем обращении.
+ */
+@Component
+public class ItemAvailabilityIndex {
+    // Горизонт карты от дня загрузки: не меньше наибольшего периода календаря доступности
+    static final int COVERED_DAYS = 400;
+    private static final int HOURS_PER_DAY = 24;
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, HourMap> items;
+
+    @Autowired
+    public ItemAvailabilityIndex(BookingRepository bookingRepository,
+                                 @Value("${shareit.item-availability.max-items:10000}") long maxItems,
+                                 @Value("${shareit.item-availability.reload-after:60000}") long reloadAfterMillis) {
+        this(bookingRepository, maxItems, reloadAfterMillis, Ticker.systemTicker());
+    }
+
+    ItemAvailabilityIndex(BookingRepository bookingRepository, long maxItems, long reloadAfterMillis, Ticker ticker) {
+        this.bookingRepository = bookingRepository;
+        long reloadAfterNanos = TimeUnit.MILLISECONDS.toNanos(reloadAfterMillis);
+        // Срок отсчитывается от загрузки карты: отметки новых бронирований его не продлевают
+        this.items = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfter(new Expiry<Long, HourMap>() {
+                    @Override
+                    public long expireAfterCreate(Long itemId, HourMap map, long currentTime) {
+                        return reloadAfterNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long itemId, HourMap map, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long itemId, HourMap map, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .build();
+    }
+
+    // Занятые часы предмета в [from, to), слитые в периоды и обрезанные по границам интервала.
+    // Пусто, если интервал выходит за карту: тогда периоды нужно читать из базы.
+    public Optional<List<PeriodDto>> findBusyPeriods(long itemId, LocalDateTime from, LocalDateTime to) {
+        HourMap map = items.get(itemId, this::load);
+        return map.covers(from, to) ? Optional.of(map.busyPeriods(from, to)) : Optional.empty();
+    }
+
+    // Бронирования заняли свои периоды: созданы или подтверждены
+    public void occupy(Collection<Booking> bookings) {
+        List<Occupied> occupied = bookings.stream()
+                .map(b -> new Occupied(b.getItem().getId(), b.getStart(), b.getEnd()))
+                .collect(Collectors.toList());
+        TransactionHooks.afterCommit(() -> occupied.forEach(o ->
+                // Отметка ждет карту, которая сейчас загружается: запрос мог прочитать базу до фиксации
+                items.asMap().computeIfPresent(o.itemId, (itemId, map) -> {
+                    map.mark(o.start, o.end);
+                    return map;
+                })));
+    }
+
+    // Бронирования освободили свои периоды: отклонены или просрочены
+    public void release(Collection<Booking> bookings) {
+        List<Long> itemIds = bookings.stream()
+                .map(b -> b.getItem().getId())
+                .distinct()
+                .collect(Collectors.toList());
+        TransactionHooks.afterCommit(() -> items.invalidateAll(itemIds));
+    }
+
+    private HourMap load(long itemId) {
+        HourMap map = new HourMap(LocalDate.now().atStartOfDay());
+        bookingRepository.findPeriodsByItemId(itemId, BookingStatus.RELEASED, map.base, map.end())
+                .forEach(period -> map.mark(period.getStart(), period.getEnd()));
+        return map;
+    }
+
+    @AllArgsConstructor
+    private static class Occupied {
+        final long itemId;
+        final LocalDateTime start;
+        final LocalDateTime end;
+    }
+
+    // Бит day * 24 + hour соответствует часу hour дня day, считая от base
+    private static class HourMap {
+        private final LocalDateTime base;
+        private final BitSet hours = new BitSet(COVERED_DAYS * HOURS_PER_DAY);
+
+        HourMap(LocalDateTime base) {
+            this.base = base;
+        }
+
+        LocalDateTime end() {
+            return base.plusDays(COVERED_DAYS);
+        }
+
+        boolean covers(LocalDateTime from, LocalDateTime to) {
+            return !from.isBefore(base) && !to.isAfter(end());
+        }
+
+        synchronized void mark(LocalDateTime start, LocalDateTime end) {
+            int from = (int) Math.max(0, floorHour(start));
+            int to = (int) Math.min((long) COVERED_DAYS * HOURS_PER_DAY, ceilHour(end));
+            if (from < to) {
+                hours.set(from, to);
+            }
+        }
+
+        synchronized List<PeriodDto> busyPeriods(LocalDateTime from, LocalDateTime to) {
+            List<PeriodDto> periods = new ArrayList<>();
+            int last = (int) ceilHour(to);
+            for (int hour = hours.nextSetBit((int) floorHour(from)); hour >= 0 && hour < last;
+                 hour = hours.nextSetBit(hour)) {
+                int runEnd = hours.nextClearBit(hour);
+                LocalDateTime start = base.plusHours(hour);
+                LocalDateTime end = base.plusHours(runEnd);
+                periods.add(new PeriodDto(start.isBefore(from) ? from : start, end.isAfter(to) ? to : end));
+                hour = runEnd;
+            }
+            return periods;
+        }
+
+        private long floorHour(LocalDateTime time) {
+            return Math.floorDiv(Duration.between(base, time).toMinutes(), 60);
+        }
+
+        private long ceilHour(LocalDateTime time) {
+            long hour = floorHour(time);
+            return base.plusHours(hour).equals(time) ? hour : hour + 1;
+        }
+    }
+}
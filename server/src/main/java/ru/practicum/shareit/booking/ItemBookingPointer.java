@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Последнее и ближайшее будущее бронирования предмета.
+ * nextStart дублирует начало ближайшего бронирования, чтобы находить устаревшие указатели по индексу.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "item_booking_pointers")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemBookingPointer {
+    @Id
+    @Column(name = "item_id")
+    Long itemId;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_booking_id")
+    Booking lastBooking;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_booking_id")
+    Booking nextBooking;
+    @Column(name = "next_start")
+    LocalDateTime nextStart;
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.schema.RequiresIndex;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ItemBookingPointerRepository extends JpaRepository<ItemBookingPointer, Long> {
+    @Query("select p " +
+            "from ItemBookingPointer p " +
+            "left join fetch p.lastBooking " +
+            "left join fetch p.nextBooking " +
+            "where p.itemId in ?1")
+    List<ItemBookingPointer> findByItemIdIn(Collection<Long> itemIds);
+
+    // Проекции указателей для списков: только колонки, которые попадают в ответ
+    @Query("select new ru.practicum.shareit.booking.dto.ItemBookingView(p.itemId, b.id, br.id, br.version, " +
+            "b.start, b.end, b.status, b.version) " +
+            "from ItemBookingPointer p " +
+            "join p.lastBooking as b " +
+            "join b.booker as br " +
+            "where p.itemId in ?1")
+    List<ItemBookingView> findLastBookingViews(Collection<Long> itemIds);
+
+    @Query("select new ru.practicum.shareit.booking.dto.ItemBookingView(p.itemId, b.id, br.id, br.version, " +
+            "b.start, b.end, b.status, b.version) " +
+            "from ItemBookingPointer p " +
+            "join p.nextBooking as b " +
+            "join b.booker as br " +
+            "where p.itemId in ?1")
+    List<ItemBookingView> findNextBookingViews(Collection<Long> itemIds);
+
+    @Modifying
+    @Query(value = "insert into item_booking_pointers (item_id) values (?1) on conflict do nothing",
+            nativeQuery = true)
+    void insertIfAbsent(long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from ItemBookingPointer p where p.itemId in ?1 order by p.itemId")
+    List<ItemBookingPointer> findAllForUpdate(Collection<Long> itemIds);
+
+    // Предметы, у которых ближайшее бронирование уже началось
+    @RequiresIndex(table = "item_booking_pointers", columns = {"next_start"})
+    @Query("select p.itemId " +
+            "from ItemBookingPointer p " +
+            "where p.nextStart <= ?1 " +
+            "order by p.nextStart")
+    List<Long> findStaleItemIds(LocalDateTime now, Pageable page);
+}
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ru.practicum.shareit.booking.dto.BookingPointerView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поддерживает указатели на последнее и ближайшее подтвержденные бронирования предметов.
+ * Указатели обновляются при подтверждении бронирований, а когда ближайшее бронирование
+ * начинается, их сдвигает периодическая задача. Подтвержденное бронирование не отклоняется
+ * и не просрочивается, поэтому других событий для указателей нет.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemBookingPointerService {
+    private static final int SWEEP_CHUNK_SIZE = 500;
+
+    private final ItemBookingPointerRepository pointerRepository;
+    private final BookingRepository bookingRepository;
+
+    // Указатели, которые задача еще не успела сдвинуть, пересчитываются на лету без сохранения
+    public Map<Long, ItemBookingPointer> findByItemIds(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return pointerRepository.findByItemIdIn(itemIds).stream()
+                .map(pointer -> isStale(pointer, now) ? compute(pointer.getItemId(), now) : pointer)
+                .collect(Collectors.toMap(ItemBookingPointer::getItemId, Function.identity()));
+    }
+
+    // То же в виде проекций; устаревшие указатели пересчитываются через сущности
+    public Map<Long, BookingPointerView> findViewsByItemIds(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingPointerView> views = new HashMap<>();
+        pointerRepository.findLastBookingViews(itemIds).forEach(last -> views
+                .computeIfAbsent(last.getItemId(), id -> new BookingPointerView())
+                .setLastBooking(last));
+        List<Long> staleItemIds = new ArrayList<>();
+        for (ItemBookingView next : pointerRepository.findNextBookingViews(itemIds)) {
+            if (next.getStart().isAfter(now)) {
+                views.computeIfAbsent(next.getItemId(), id -> new BookingPointerView()).setNextBooking(next);
+            } else {
+                staleItemIds.add(next.getItemId());
+            }
+        }
+        for (Long itemId : staleItemIds) {
+            ItemBookingPointer pointer = compute(itemId, now);
+            views.put(itemId, new BookingPointerView(BookingMapper.mapToItemBookingView(pointer.getLastBooking()),
+                    BookingMapper.mapToItemBookingView(pointer.getNextBooking())));
+        }
+        return views;
+    }
+
+    @Transactional
+    public void createFor(long itemId) {
+        pointerRepository.save(ItemBookingPointer.builder().itemId(itemId).build());
+    }
+
+    // Указатели всех затронутых предметов блокируются одним запросом в порядке itemId
+    @Transactional
+    public void onBookingsApproved(Collection<Booking> bookings) {
+        Map<Long, List<Booking>> byItemId = bookings.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        if (byItemId.isEmpty()) {
+            return;
+        }
+        Map<Long, ItemBookingPointer> pointers = lockPointers(byItemId.keySet());
+        LocalDateTime now = LocalDateTime.now();
+        byItemId.forEach((itemId, itemBookings) ->
+                itemBookings.forEach(booking -> advance(pointers.get(itemId), booking, now)));
+        pointerRepository.saveAll(pointers.values());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-pointers.sweep-delay:60000}")
+    @Transactional
+    public void rollForward() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> staleItemIds = pointerRepository.findStaleItemIds(now, PageRequest.of(0, SWEEP_CHUNK_SIZE));
+        for (Long itemId : staleItemIds) {
+            ItemBookingPointer pointer = lockPointer(itemId);
+            refresh(pointer, now);
+            pointerRepository.save(pointer);
+        }
+        if (!staleItemIds.isEmpty()) {
+            log.info("Указатели бронирований сдвинуты для {} предметов", staleItemIds.size());
+        }
+    }
+
+    private ItemBookingPointer lockPointer(long itemId) {
+        return lockPointers(Set.of(itemId)).get(itemId);
+    }
+
+    // Недостающие строки указателей создаются через upsert: параллельные транзакции не вставят одну строку дважды
+    private Map<Long, ItemBookingPointer> lockPointers(Set<Long> itemIds) {
+        Map<Long, ItemBookingPointer> pointers = pointerRepository.findAllForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingPointer::getItemId, Function.identity()));
+        if (pointers.size() < itemIds.size()) {
+            List<Long> missing = itemIds.stream()
+                    .filter(itemId -> !pointers.containsKey(itemId))
+                    .sorted()
+                    .collect(Collectors.toList());
+            missing.forEach(pointerRepository::insertIfAbsent);
+            pointerRepository.findAllForUpdate(missing)
+                    .forEach(pointer -> pointers.put(pointer.getItemId(), pointer));
+        }
+        return pointers;
+    }
+
+    private static void advance(ItemBookingPointer pointer, Booking booking, LocalDateTime now) {
+        if (!booking.getStart().isAfter(now)) {
+            Booking last = pointer.getLastBooking();
+            if (last == null || booking.getStart().isAfter(last.getStart())) {
+                pointer.setLastBooking(booking);
+            }
+        } else {
+            Booking next = pointer.getNextBooking();
+            if (next == null || booking.getStart().isBefore(next.getStart())) {
+                pointer.setNextBooking(booking);
+                pointer.setNextStart(booking.getStart());
+            }
+        }
+    }
+
+    private ItemBookingPointer compute(long itemId, LocalDateTime now) {
+        ItemBookingPointer pointer = ItemBookingPointer.builder().itemId(itemId).build();
+        refresh(pointer, now);
+        return pointer;
+    }
+
+    private void refresh(ItemBookingPointer pointer, LocalDateTime now) {
+        long itemId = pointer.getItemId();
+        Booking last = bookingRepository.findFirstByItemIdAndStatusAndStartLessThanEqualOrderByStartDesc(
+                itemId, BookingStatus.APPROVED, now).orElse(null);
+        Booking next = bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(
+                itemId, BookingStatus.APPROVED, now).orElse(null);
+        pointer.setLastBooking(last);
+        pointer.setNextBooking(next);
+        pointer.setNextStart(next != null ? next.getStart() : null);
+    }
+
+    private static boolean isStale(ItemBookingPointer pointer, LocalDateTime now) {
+        return pointer.getNextStart() != null && !pointer.getNextStart().isAfter(now);
+    }
+
+}
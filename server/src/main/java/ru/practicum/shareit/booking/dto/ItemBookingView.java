@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+// Последнее или ближайшее бронирование предмета без загрузки сущностей
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemBookingView {
+    Long itemId;
+    Long id;
+    Long bookerId;
+    Long bookerVersion;
+    LocalDateTime start;
+    LocalDateTime end;
+    BookingStatus status;
+    Long version;
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Регионы кэша второго уровня Hibernate: размер в записях и время жизни для каждого региона.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit.entity-cache")
+public class EntityCacheProperties {
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+        private long maxSize = 10_000;
+        // Пустое значение - записи не устаревают по времени
+        private Duration ttl;
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Чтение своих записей при работе с репликой: после изменяющего запроса запросы того же пользователя
+ * какое-то время читают из основной базы. Запрос с заголовком X-Shareit-Read-Primary читает из нее всегда -
+ * так гейтвей заполняет свой кэш, который иначе мог бы сохранить устаревший ответ реплики.
+ * Время изменений хранится в памяти экземпляра сервера.
+ */
+public class PrimaryAfterWriteFilter extends OncePerRequestFilter {
+    public static final String READ_PRIMARY_HEADER = "X-Shareit-Read-Primary";
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final Duration window;
+    private final Clock clock;
+    private final Map<String, Instant> lastWrites = new ConcurrentHashMap<>();
+
+    public PrimaryAfterWriteFilter(Duration window) {
+        this(window, Clock.systemUTC());
+    }
+
+    PrimaryAfterWriteFilter(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String userId = request.getHeader(USER_HEADER);
+        boolean primary = Boolean.parseBoolean(request.getHeader(READ_PRIMARY_HEADER)) || wroteRecently(userId);
+        // Изменение отмечается до обработки: ответ может дойти до клиента раньше, чем фильтр получит управление
+        if (userId != null && !isRead(request)) {
+            recordWrite(userId);
+        }
+        if (!primary) {
+            chain.doFilter(request, response);
+            return;
+        }
+        boolean forcedBefore = PrimaryRouting.force();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            PrimaryRouting.restore(forcedBefore);
+        }
+    }
+
+    private boolean wroteRecently(String userId) {
+        if (userId == null) {
+            return false;
+        }
+        Instant lastWrite = lastWrites.get(userId);
+        return lastWrite != null && lastWrite.plus(window).isAfter(clock.instant());
+    }
+
+    private void recordWrite(String userId) {
+        Instant now = clock.instant();
+        lastWrites.put(userId, now);
+        // Старые записи удаляются здесь же, отдельная очистка не нужна
+        lastWrites.values().removeIf(lastWrite -> !lastWrite.plus(window).isAfter(now));
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Чтение из основной базы внутри readOnly транзакции, когда реплика может не знать о свежих изменениях.
+ * Влияет только на соединение, которое транзакция еще не взяла: база выбирается при первом запросе,
+ * и дальше транзакция остается на ней. Без реплики ничего не меняет.
+ */
+public class PrimaryRouting {
+    private static final ThreadLocal<Boolean> FORCED = ThreadLocal.withInitial(() -> false);
+
+    public static <T> T call(Supplier<T> action) {
+        boolean forcedBefore = force();
+        try {
+            return action.get();
+        } finally {
+            restore(forcedBefore);
+        }
+    }
+
+    static boolean isForced() {
+        return FORCED.get();
+    }
+
+    // Для кода, который не укладывается в Supplier; возвращает прежнее значение для restore
+    static boolean force() {
+        boolean forcedBefore = FORCED.get();
+        FORCED.set(true);
+        return forcedBefore;
+    }
+
+    static void restore(boolean forcedBefore) {
+        FORCED.set(forcedBefore);
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Реплика для чтения. Пока url не задан, все запросы идут в основную базу из spring.datasource.
+ * Пул реплики настраивается через shareit.datasource.replica.hikari.*.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit.datasource.replica")
+public class ReplicaDataSourceProperties {
+    private String url;
+    // Пустые значения берутся из spring.datasource
+    private String username;
+    private String password;
+    private String driverClassName;
+    // Запрос к реплике, возвращающий отставание в секундах; по умолчанию для потоковой репликации PostgreSQL
+    private String lagQuery = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 " +
+            "else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+    // При большем отставании чтение переключается на основную базу
+    private Duration maxLag = Duration.ofSeconds(5);
+    // Столько после изменяющего запроса чтение пользователя идет в основную базу;
+    // должно покрывать max-lag и период проверки отставания
+    private Duration primaryAfterWrite = Duration.ofSeconds(10);
+}
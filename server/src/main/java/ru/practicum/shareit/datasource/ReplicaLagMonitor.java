@@ -0,0 +1,59 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Периодически измеряет отставание реплики. Реплика, которая отстала больше допустимого
+ * или не отвечает, исключается из маршрутизации до следующей удачной проверки.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    private final JdbcTemplate jdbcTemplate;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, ReplicaDataSourceProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.lagQuery = properties.getLagQuery();
+        this.maxLag = properties.getMaxLag();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.datasource.replica.lag-check-delay:5000}")
+    public void check() {
+        double lag;
+        try {
+            Double measured = jdbcTemplate.queryForObject(lagQuery, Double.class);
+            // null - реплика еще ничего не применяла или это не реплика
+            lag = measured != null ? measured : 0;
+        } catch (DataAccessException e) {
+            log.warn("Не удалось измерить отставание реплики: {}", e.getMessage());
+            lag = Double.NaN;
+        }
+        boolean usable = !Double.isNaN(lag) && lag * 1000 <= maxLag.toMillis();
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Чтение переключено на реплику, отставание {} с", lag);
+            } else {
+                log.warn("Чтение переключено на основную базу, отставание реплики {} с", lag);
+            }
+        }
+        lagSeconds = lag;
+        replicaUsable = usable;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+}
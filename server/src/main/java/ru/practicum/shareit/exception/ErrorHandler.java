@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -54,4 +55,12 @@ public class ErrorHandler {
         log.info(e.getMessage(), e);
         return new ErrorResponse("Нет доступа", e.getMessage());
     }
+
+    // Параллельное изменение той же сущности: версия в базе ушла вперед
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailure(final OptimisticLockingFailureException e) {
+        log.warn(e.getMessage());
+        return new ErrorResponse("Конфликт изменений", "Объект был изменен другим запросом, повторите операцию");
+    }
 }
@@ -1,24 +1,46 @@
 package ru.practicum.shareit.item;
 
-import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.ItemBookingPointer;
+import ru.practicum.shareit.booking.dto.BookingPointerView;
 import ru.practicum.shareit.booking.dto.ShortBookingDto;
-import ru.practicum.shareit.item.comments.Comment;
-import ru.practicum.shareit.item.comments.CommentDto;
 import ru.practicum.shareit.item.comments.CommentMapper;
+import ru.practicum.shareit.item.comments.CommentView;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBookings;
+import ru.practicum.shareit.item.dto.OwnerItemView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.EntityTag;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 public class ItemMapper {
+    public static void addToTag(EntityTag tag, Item item) {
+        tag.add("item", item.getId(), item.getVersion());
+    }
+
+    // Состояние предмета вместе с бронированиями и отзывами, которые отдает mapToItemDtoWithBookings
+    public static void addToTag(EntityTag tag, OwnerItemView item, BookingPointerView pointer,
+                                List<CommentView> comments) {
+        tag.add("item", item.getId(), item.getVersion());
+        tag.add("last");
+        if (pointer != null && pointer.getLastBooking() != null) {
+            BookingMapper.addToTag(tag, pointer.getLastBooking());
+        }
+        tag.add("next");
+        if (pointer != null && pointer.getNextBooking() != null) {
+            BookingMapper.addToTag(tag, pointer.getNextBooking());
+        }
+        tag.add("comments", CommentMapper.countOf(comments));
+        comments.forEach(c -> CommentMapper.addToTag(tag, c));
+    }
+
     public static ItemDto mapItemToItemDto(Item item) {
         return ItemDto.builder()
                 .id(item.getId())
@@ -31,31 +53,53 @@ public class ItemMapper {
     }
 
 
-    public static ItemDto mapToItemDtoWithBookings(Item item, List<Booking> bookings, List<CommentDto> comments) {
+    public static ItemDto mapToItemDtoWithBookings(Item item, ItemBookingPointer pointer, List<CommentView> comments) {
         ShortBookingDto lastBooking = null;
         ShortBookingDto nextBooking = null;
-        if (bookings.size() > 1) {
-            lastBooking = BookingMapper.mapToShortBookingDto(bookings.get(0));
-            nextBooking = BookingMapper.mapToShortBookingDto(bookings.get(1));
-        } else if (bookings.size() == 1) {
-            LocalDateTime now = LocalDateTime.now();
-            if (bookings.get(0).getStart().isAfter(now)) {
-                nextBooking = BookingMapper.mapToShortBookingDto(bookings.get(0));
-            } else {
-                lastBooking = BookingMapper.mapToShortBookingDto(bookings.get(0));
-            }
+        if (pointer != null && pointer.getLastBooking() != null) {
+            lastBooking = BookingMapper.mapToShortBookingDto(pointer.getLastBooking());
+        }
+        if (pointer != null && pointer.getNextBooking() != null) {
+            nextBooking = BookingMapper.mapToShortBookingDto(pointer.getNextBooking());
         }
         Long itemRequestId = item.getRequest() != null ? item.getRequest().getId() : null;
         return new ItemDtoWithBookings(item.getId(), item.getOwner().getId(), itemRequestId,
-                item.getName(), item.getDescription(), item.getAvailable(), lastBooking, nextBooking, comments);
+                item.getName(), item.getDescription(), item.getAvailable(), lastBooking, nextBooking,
+                CommentMapper.mapViewsToCommentDto(comments), CommentMapper.countOf(comments));
     }
 
-    public static List<ItemDto> mapToItemDtoWithBookings(List<Item> items, Map<Long,
-            List<Booking>> bookings, Map<Long, List<Comment>> comments) {
-        return items.stream()
-                .map(i -> ItemMapper.mapToItemDtoWithBookings(i, bookings.getOrDefault(i.getId(), Collections.emptyList()),
-                        CommentMapper.mapToCommentDto(comments.getOrDefault(i.getId(), Collections.emptyList()))))
-                .collect(Collectors.toList());
+    public static ItemDto mapToItemDto(OwnerItemView item) {
+        return ItemDto.builder()
+                .id(item.getId())
+                .ownerId(item.getOwnerId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .requestId(item.getRequestId())
+                .build();
+    }
+
+    public static List<ItemDto> mapToItemDtoWithBookings(List<OwnerItemView> items,
+                                                         Map<Long, BookingPointerView> pointers,
+                                                         Map<Long, List<CommentView>> comments) {
+        List<ItemDto> itemsDto = new ArrayList<>();
+        for (OwnerItemView item : items) {
+            ItemDto itemDto = mapToItemDto(item);
+            BookingPointerView pointer = pointers.get(item.getId());
+            ShortBookingDto lastBooking = null;
+            ShortBookingDto nextBooking = null;
+            if (pointer != null && pointer.getLastBooking() != null) {
+                lastBooking = BookingMapper.mapToShortBookingDto(pointer.getLastBooking(), itemDto);
+            }
+            if (pointer != null && pointer.getNextBooking() != null) {
+                nextBooking = BookingMapper.mapToShortBookingDto(pointer.getNextBooking(), itemDto);
+            }
+            List<CommentView> itemComments = comments.getOrDefault(item.getId(), Collections.emptyList());
+            itemsDto.add(new ItemDtoWithBookings(item.getId(), item.getOwnerId(), item.getRequestId(), item.getName(),
+                    item.getDescription(), item.getAvailable(), lastBooking, nextBooking,
+                    CommentMapper.mapViewsToCommentDto(itemComments), CommentMapper.countOf(itemComments)));
+        }
+        return itemsDto;
     }
 
     public static Item mapItemDtoToItem(ItemDto itemDto, User owner, ItemRequest itemRequest) {
@@ -2,12 +2,32 @@ package ru.practicum.shareit.item.comments;
 
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.EntityTag;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class CommentMapper {
+    public static void addToTag(EntityTag tag, CommentView comment) {
+        // Отзывы не изменяются, в ответе от автора зависит только имя
+        tag.add("comment", comment.getId());
+        tag.add("user", comment.getAuthorId(), comment.getAuthorVersion());
+    }
+
+    public static long countOf(List<CommentView> latestComments) {
+        return latestComments.isEmpty() ? 0 : latestComments.get(0).getItemCommentCount();
+    }
+
+    public static CommentDto mapToCommentDto(CommentView comment) {
+        return CommentDto.builder()
+                .id(comment.getId())
+                .authorName(comment.getAuthorName())
+                .text(comment.getText())
+                .created(comment.getCreated())
+                .build();
+    }
+
     public static CommentDto mapToCommentDto(Comment comment) {
         return CommentDto.builder()
                 .id(comment.getId())
@@ -23,6 +43,12 @@ public class CommentMapper {
                 .collect(Collectors.toList());
     }
 
+    public static List<CommentDto> mapViewsToCommentDto(List<CommentView> comments) {
+        return comments.stream()
+                .map(CommentMapper::mapToCommentDto)
+                .collect(Collectors.toList());
+    }
+
     public static Comment mapToComment(CommentDto commentDto, Item item, User author) {
         return Comment.builder()
                 .item(item)
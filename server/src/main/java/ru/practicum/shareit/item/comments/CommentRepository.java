@@ -1,12 +1,40 @@
 package ru.practicum.shareit.item.comments;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.schema.RequiresIndex;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends CrudRepository<Comment, Long> {
-    List<Comment> findByItemIdInOrderByCreated(Collection<Long> itemId);
+    // Последние limit отзывов каждого предмета вместе с их общим числом
+    @RequiresIndex(table = "comments", columns = {"item_id", "created"})
+    @Query(value = "select c.item_id as \"itemId\", c.id as \"id\", u.id as \"authorId\", " +
+            "u.version as \"authorVersion\", u.name as \"authorName\", c.text as \"text\", " +
+            "c.created as \"created\", c.comment_count as \"itemCommentCount\" " +
+            "from (select c.*, " +
+            "row_number() over (partition by c.item_id order by c.created desc, c.id desc) as recency, " +
+            "count(*) over (partition by c.item_id) as comment_count " +
+            "from comments as c " +
+            "where c.item_id in ?1) as c " +
+            "join users as u on u.id = c.author_id " +
+            "where c.recency <= ?2 " +
+            "order by c.created, c.id",
+            nativeQuery = true)
+    List<CommentView> findLatestByItemIdIn(Collection<Long> itemIds, int limit);
+
+    // Постраничный поиск отзывов предмета по курсору (created, id), от новых к старым
+    @RequiresIndex(table = "comments", columns = {"item_id", "created"})
+    @Query("select c " +
+            "from Comment c " +
+            "join fetch c.author " +
+            "where c.item.id = ?1 " +
+            "and (c.created < ?2 or c.created = ?2 and c.id < ?3) " +
+            "order by c.created desc, c.id desc")
+    List<Comment> findByItemIdAfterCursor(long itemId, LocalDateTime cursorCreated, long cursorId, Pageable page);
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.comments;
+
+import java.time.LocalDateTime;
+
+// Отзыв вместе с предметом и данными автора, которые нужны для ответа и ETag
+public interface CommentView {
+    Long getItemId();
+
+    Long getId();
+
+    Long getAuthorId();
+
+    Long getAuthorVersion();
+
+    String getAuthorName();
+
+    String getText();
+
+    LocalDateTime getCreated();
+
+    // Общее число отзывов предмета, а не только попавших в выборку
+    Long getItemCommentCount();
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.dto.PeriodDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Свободные и занятые периоды предмета в пределах [from, to); у недоступного предмета свободных периодов нет
+// В пределах карты занятости (400 дней от текущего) занятость считается по часам: час, который бронирование
+// занимает хотя бы частично, занят целиком
+@Data
+@Builder
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemAvailabilityDto {
+    Long itemId;
+    Boolean available;
+    LocalDateTime from;
+    LocalDateTime to;
+    List<PeriodDto> free;
+    List<PeriodDto> busy;
+}
@@ -15,13 +15,17 @@ import java.util.List;
 public class ItemDtoWithBookings extends ItemDto {
     ShortBookingDto lastBooking;
     ShortBookingDto nextBooking;
+    // Последние отзывы; остальные доступны через GET /items/{itemId}/comments
     List<CommentDto> comments;
+    Long commentCount;
 
     public ItemDtoWithBookings(Long id, Long ownerId, Long requestId, String name, String description, Boolean available,
-                               ShortBookingDto lastBooking, ShortBookingDto nextBooking, List<CommentDto> comments) {
+                               ShortBookingDto lastBooking, ShortBookingDto nextBooking, List<CommentDto> comments,
+                               Long commentCount) {
         super(id, ownerId, requestId, name, description, available);
         this.lastBooking = lastBooking;
         this.nextBooking = nextBooking;
         this.comments = comments;
+        this.commentCount = commentCount;
     }
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+// Колонки предмета, нужные для списка предметов владельца; заполняется конструктором в запросе
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class OwnerItemView {
+    Long id;
+    Long ownerId;
+    Long requestId;
+    String name;
+    String description;
+    Boolean available;
+    Long version;
+}
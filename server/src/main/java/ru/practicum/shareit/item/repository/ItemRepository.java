@@ -5,7 +5,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.OwnerItemView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.schema.RequiresIndex;
 
 import java.util.Collection;
 import java.util.List;
@@ -13,16 +15,43 @@ import java.util.List;
 @Repository
 public interface ItemRepository extends CrudRepository<Item, Long> {
 
-    Item getItemById(Long itemId);
+    // Через findById, чтобы предмет брался из кэша второго уровня
+    default Item getItemById(Long itemId) {
+        return findById(itemId).orElse(null);
+    }
 
-    Page<Item> findByOwnerIdOrderById(Long ownerId, Pageable page);
+    Page<Item> findAllBy(Pageable page);
 
+    @RequiresIndex(table = "items", columns = {"user_id", "id"})
+    @Query(value = "select new ru.practicum.shareit.item.dto.OwnerItemView(i.id, i.owner.id, r.id, i.name, " +
+            "i.description, i.available, i.version) " +
+            "from Item as i " +
+            "left join i.request as r " +
+            "where i.owner.id = ?1 " +
+            "order by i.id",
+            countQuery = "select count(i) from Item as i where i.owner.id = ?1")
+    Page<OwnerItemView> findViewsByOwnerId(Long ownerId, Pageable page);
+
+    // Символы %, _ и \ в searchPhrase должны быть экранированы обратной косой чертой
     @Query("select i " +
             "from Item as i " +
             "where i.available = true and" +
-            " (UPPER(i.name) like UPPER(concat('%', ?1,'%'))" +
-            " or UPPER(i.description) like UPPER(concat('%', ?1, '%')))")
+            " (UPPER(i.name) like UPPER(concat('%', ?1,'%')) escape '\\'" +
+            " or UPPER(i.description) like UPPER(concat('%', ?1, '%')) escape '\\')")
     Page<Item> findByNameOrDescription(String searchPhrase, Pageable page);
 
+    // Только для PostgreSQL: колонка search_vector и триграммные индексы создаются миграцией V5.
+    // Символы %, _ и \ в searchPhrase должны быть экранированы обратной косой чертой
+    @Query(value = "select i.* " +
+            "from items as i " +
+            "where i.available = true " +
+            "and (i.search_vector @@ to_tsquery('russian', ?1) " +
+            "or i.name ilike concat('%', ?2, '%') escape '\\' " +
+            "or i.description ilike concat('%', ?2, '%') escape '\\') " +
+            "order by ts_rank(i.search_vector, to_tsquery('russian', ?1)) desc, i.id",
+            nativeQuery = true)
+    List<Item> findByFullTextQuery(String tsQuery, String searchPhrase, Pageable page);
+
+    @RequiresIndex(table = "items", columns = {"request_id"})
     List<Item> findByRequestIdIn(Collection<Long> requestIds);
 }
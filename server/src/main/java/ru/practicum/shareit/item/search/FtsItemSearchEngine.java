@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск средствами PostgreSQL: tsvector с GIN-индексом и pg_trgm для совпадений по подстроке.
+ * Памяти JVM не требует, но работает только на PostgreSQL.
+ */
+@Primary
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.mode", havingValue = "fts")
+public class FtsItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String searchPhrase, int from, int size) {
+        String tsQuery = toPrefixTsQuery(searchPhrase);
+        if (tsQuery.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return itemRepository.findByFullTextQuery(tsQuery, SqlItemSearchEngine.escapeLike(searchPhrase.trim()),
+                PageRequest.of(from / size, size));
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+    }
+
+    // "Аккумуляторная дрель" -> "аккумуляторная:* & дрель:*"; служебные символы tsquery отбрасываются
+    static String toPrefixTsQuery(String searchPhrase) {
+        return Arrays.stream(searchPhrase.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Поиск по инвертированному индексу в памяти. Индекс строится при старте из таблицы items,
+ * до окончания первого построения запросы обслуживает {@link SqlItemSearchEngine}.
+ * <p>
+ * Индекс свой у каждого экземпляра сервера. Изменения, сохраненные этим экземпляром, видны в поиске сразу
+ * после фиксации транзакции; изменения с других экземпляров - только после очередного перестроения
+ * (shareit.search.index.rebuild-delay). Перестроение собирает новый индекс рядом с действующим и подменяет его.
+ */
+@Slf4j
+@Primary
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.mode", havingValue = "index", matchIfMissing = true)
+public class IndexedItemSearchEngine implements ItemSearchEngine {
+    private static final int BUILD_PAGE_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final SqlItemSearchEngine fallback;
+    private volatile ItemSearchIndex index = new ItemSearchIndex();
+    // Индекс, который сейчас перестраивается; сохраненные за это время предметы попадают и в него
+    private volatile ItemSearchIndex building;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${shareit.search.index.rebuild-delay:600000}",
+            fixedDelayString = "${shareit.search.index.rebuild-delay:600000}")
+    public synchronized void buildIndex() {
+        ItemSearchIndex fresh = new ItemSearchIndex();
+        building = fresh;
+        PageRequest page = PageRequest.of(0, BUILD_PAGE_SIZE, Sort.by("id"));
+        Page<Item> items;
+        do {
+            items = itemRepository.findAllBy(page);
+            items.forEach(item -> put(fresh, item));
+            page = page.next();
+        } while (items.hasNext());
+        index = fresh;
+        building = null;
+        ready = true;
+        log.info("Поисковый индекс построен, предметов в индексе: {}", fresh.size());
+    }
+
+    @Override
+    public List<Item> search(String searchPhrase, int from, int size) {
+        if (!ready) {
+            return fallback.search(searchPhrase, from, size);
+        }
+        List<Long> ids = index.search(searchPhrase).stream()
+                .skip((long) (from / size) * size)
+                .limit(size)
+                .collect(Collectors.toList());
+        Map<Long, Item> items = StreamSupport.stream(itemRepository.findAllById(ids).spliterator(), false)
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Индекс меняется только после фиксации транзакции, чтобы не показывать откаченные изменения.
+    // Версия предмета увеличивается при flush, поэтому читается уже после фиксации.
+    // Перестраиваемый индекс читается первым: если его уже нет, действующим стал новый индекс
+    @Override
+    public void onItemSaved(Item item) {
+        TransactionHooks.afterCommit(() -> {
+            ItemSearchIndex rebuilt = building;
+            if (rebuilt != null) {
+                put(rebuilt, item);
+            }
+            put(index, item);
+        });
+    }
+
+    private static void put(ItemSearchIndex target, Item item) {
+        target.put(item.getId(), item.getVersion() != null ? item.getVersion() : 0L, item.getName(),
+                item.getDescription(), Boolean.TRUE.equals(item.getAvailable()));
+    }
+}
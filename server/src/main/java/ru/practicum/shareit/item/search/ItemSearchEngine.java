@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Поиск доступных предметов по названию и описанию. Реализация выбирается свойством shareit.search.mode.
+ */
+public interface ItemSearchEngine {
+    List<Item> search(String searchPhrase, int from, int size);
+
+    // Вызывается после сохранения предмета, чтобы движок мог обновить свои структуры
+    void onItemSaved(Item item);
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс доступных предметов: основа слова -> предметы с весом поля, в котором она встретилась.
+ * Слово из названия весит больше, чем из описания; точное совпадение основы весит больше, чем совпадение по префиксу.
+ * Для каждого предмета хранится версия, поэтому запоздавшая старая запись не затирает более новую.
+ */
+public class ItemSearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH_FACTOR = 2;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> itemTerms = new HashMap<>();
+    private final Map<Long, Long> itemVersions = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(long itemId, long version, String name, String description, boolean available) {
+        Map<String, Integer> weights = new HashMap<>();
+        if (available) {
+            TextAnalyzer.analyze(name).forEach(term -> weights.merge(term, NAME_WEIGHT, ItemSearchIndex::combine));
+            TextAnalyzer.analyze(description)
+                    .forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, ItemSearchIndex::combine));
+        }
+        lock.writeLock().lock();
+        try {
+            Long indexedVersion = itemVersions.get(itemId);
+            if (indexedVersion != null && indexedVersion >= version) {
+                return;
+            }
+            itemVersions.put(itemId, version);
+            removeTerms(itemId);
+            if (!weights.isEmpty()) {
+                weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(itemId, weight));
+                itemTerms.put(itemId, new HashSet<>(weights.keySet()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Идентификаторы предметов, содержащих все слова запроса, по убыванию релевантности
+    public List<Long> search(String searchPhrase) {
+        Set<String> queryTerms = new HashSet<>(TextAnalyzer.analyze(searchPhrase));
+        if (queryTerms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String queryTerm : queryTerms) {
+                Map<Long, Integer> termScores = scoreTerm(queryTerm);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((itemId, score) -> score + termScores.get(itemId));
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return itemTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> scoreTerm(String queryTerm) {
+        Map<Long, Integer> scores = new HashMap<>();
+        postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false)
+                .forEach((term, items) -> {
+                    int factor = term.equals(queryTerm) ? EXACT_MATCH_FACTOR : 1;
+                    items.forEach((itemId, weight) -> scores.merge(itemId, weight * factor, Math::max));
+                });
+        return scores;
+    }
+
+    private void removeTerms(long itemId) {
+        Set<String> terms = itemTerms.remove(itemId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> items = postings.get(term);
+            items.remove(itemId);
+            if (items.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    // Вес слова, встретившегося и в названии, и в описании
+    private static int combine(int first, int second) {
+        return first == second ? first : first + second;
+    }
+}
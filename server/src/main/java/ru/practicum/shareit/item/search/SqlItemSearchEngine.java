@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+// Поиск подстроки запросом к базе, используется как запасной вариант
+@Component
+@RequiredArgsConstructor
+public class SqlItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String searchPhrase, int from, int size) {
+        PageRequest page = PageRequest.of(from / size, size);
+        return itemRepository.findByNameOrDescription(escapeLike(searchPhrase), page).getContent();
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+    }
+
+    // Подстрока из запроса ищется буквально: "%" и "_" не должны совпадать с любыми символами
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
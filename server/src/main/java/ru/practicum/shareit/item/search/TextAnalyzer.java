@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Разбивает текст на слова и приводит их к основе: убирает типовые окончания русских и английских слов.
+ * Это упрощенный стеммер, поэтому при поиске основы сравниваются по префиксу.
+ */
+public class TextAnalyzer {
+    private static final Pattern DELIMITER = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern CYRILLIC = Pattern.compile(".*\\p{IsCyrillic}.*");
+    private static final int MIN_STEM_LENGTH = 3;
+
+    // Окончания упорядочены от длинных к коротким
+    private static final String[] RUSSIAN_ENDINGS = {
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "ить", "ать", "ять", "ешь", "ишь",
+            "ая", "яя", "ое", "ее", "ые", "ие", "ый", "ий", "ой", "ом", "ем", "ам", "ям", "ах", "ях", "ую", "юю",
+            "ов", "ев", "ей", "ия", "ью", "ет", "ит", "ут", "ют", "ат", "ят",
+            "ь", "а", "я", "о", "е", "ы", "и", "у", "ю", "й"
+    };
+    private static final String[] ENGLISH_ENDINGS = {"ing", "ies", "ed", "es", "ly", "s"};
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : DELIMITER.split(text.toLowerCase(Locale.ROOT).replace('ё', 'е'))) {
+            if (!word.isEmpty()) {
+                terms.add(stem(word));
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String word) {
+        String[] endings = CYRILLIC.matcher(word).matches() ? RUSSIAN_ENDINGS : ENGLISH_ENDINGS;
+        for (String ending : endings) {
+            if (word.endsWith(ending) && word.length() - ending.length() >= MIN_STEM_LENGTH) {
+                return word.substring(0, word.length() - ending.length());
+            }
+        }
+        return word;
+    }
+}
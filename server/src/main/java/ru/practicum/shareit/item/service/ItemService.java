@@ -1,15 +1,26 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.comments.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.util.Tagged;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
 
     ItemDto getItemById(Long itemId, Long userId);
 
-    List<ItemDto> findItemsByOwnerId(Long ownerId, int from, int size);
+    // Выборка вместе с ETag для условных запросов
+    Tagged<List<ItemDto>> findTaggedItemsByOwnerId(Long ownerId, int from, int size);
+
+    // Отзывы предмета от новых к старым, начиная с позиции курсора
+    List<CommentDto> findComments(long itemId, KeysetCursor cursor, int size);
+
+    // Свободные и занятые периоды предмета; без from - с текущего момента, без to - на 30 дней вперед
+    ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
 
     List<ItemDto> searchItemsByPhrase(String searchPhrase, int from, int size);
 
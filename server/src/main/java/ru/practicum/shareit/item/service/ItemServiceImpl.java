@@ -3,28 +3,41 @@ package ru.practicum.shareit.item.service;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.ItemAvailabilityIndex;
+import ru.practicum.shareit.booking.ItemBookingPointer;
+import ru.practicum.shareit.booking.ItemBookingPointerService;
+import ru.practicum.shareit.booking.dto.BookingPointerView;
+import ru.practicum.shareit.booking.dto.PeriodDto;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NoRightsForUpdateException;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.exception.ObjectNotValidException;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.comments.Comment;
 import ru.practicum.shareit.item.comments.CommentDto;
 import ru.practicum.shareit.item.comments.CommentMapper;
 import ru.practicum.shareit.item.comments.CommentRepository;
+import ru.practicum.shareit.item.comments.CommentView;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.OwnerItemView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.Tagged;
+import ru.practicum.shareit.util.EntityTag;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -34,11 +47,20 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 @AllArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    // Сколько последних отзывов встраивается в предмет
+    private static final int LATEST_COMMENTS_LIMIT = 10;
+    // Горизонт календаря доступности по умолчанию и наибольший допустимый
+    private static final Duration DEFAULT_AVAILABILITY_HORIZON = Duration.ofDays(30);
+    private static final Duration MAX_AVAILABILITY_HORIZON = Duration.ofDays(366);
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository requestRepository;
+    private final ItemBookingPointerService bookingPointerService;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemSearchEngine searchEngine;
 
 
     @Override
@@ -48,37 +70,73 @@ public class ItemServiceImpl implements ItemService {
             throw new ObjectNotFoundException("Предмет", itemId);
         }
         ItemDto itemDto;
-        List<Booking> bookings;
+        ItemBookingPointer pointer = null;
         if (Objects.equals(item.getOwner().getId(), userId)) {
-            Sort sort = Sort.by("start").ascending();
-            bookings = bookingRepository.findLastAndNearFutureBookingsByItemIn(Set.of(itemId), LocalDateTime.now(), sort);
-        } else {
-            bookings = Collections.emptyList();
+            pointer = bookingPointerService.findByItemIds(Set.of(itemId)).get(itemId);
         }
-        List<CommentDto> comments = CommentMapper.mapToCommentDto(commentRepository.findByItemIdInOrderByCreated(Set.of(itemId)));
-        itemDto = ItemMapper.mapToItemDtoWithBookings(item, bookings, comments);
+        List<CommentView> comments = commentRepository.findLatestByItemIdIn(Set.of(itemId), LATEST_COMMENTS_LIMIT);
+        itemDto = ItemMapper.mapToItemDtoWithBookings(item, pointer, comments);
 
         return itemDto;
     }
 
+    // Список владельца собирается из проекций: сущности не попадают в контекст персистентности
     @Override
-    public List<ItemDto> findItemsByOwnerId(Long ownerId, int from, int size) {
-        List<Item> items;
-
+    public Tagged<List<ItemDto>> findTaggedItemsByOwnerId(Long ownerId, int from, int size) {
         PageRequest page = PageRequest.of(from / size, size);
-        items = itemRepository.findByOwnerIdOrderById(ownerId, page)
+        List<OwnerItemView> items = itemRepository.findViewsByOwnerId(ownerId, page)
                 .getContent();
-        List<ItemDto> itemsWithBookings;
-        Sort sort = Sort.by("start").ascending();
-        Collection<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toSet());
-        Map<Long, List<Booking>> bookings = bookingRepository.findLastAndNearFutureBookingsByItemIn(
-                        itemIds, LocalDateTime.now(), sort)
-                .stream()
-                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
-        Map<Long, List<Comment>> comments = commentRepository.findByItemIdInOrderByCreated(itemIds).stream()
-                .collect(Collectors.groupingBy(c -> c.getItem().getId()));
-        itemsWithBookings = ItemMapper.mapToItemDtoWithBookings(items, bookings, comments);
-        return itemsWithBookings;
+        Collection<Long> itemIds = items.stream().map(OwnerItemView::getId).collect(Collectors.toSet());
+        Map<Long, BookingPointerView> pointers = bookingPointerService.findViewsByItemIds(itemIds);
+        Map<Long, List<CommentView>> comments = itemIds.isEmpty() ? Collections.emptyMap()
+                : commentRepository.findLatestByItemIdIn(itemIds, LATEST_COMMENTS_LIMIT).stream()
+                .collect(Collectors.groupingBy(CommentView::getItemId));
+        EntityTag tag = new EntityTag();
+        items.forEach(i -> ItemMapper.addToTag(tag, i, pointers.get(i.getId()),
+                comments.getOrDefault(i.getId(), Collections.emptyList())));
+        return Tagged.of(tag, () -> ItemMapper.mapToItemDtoWithBookings(items, pointers, comments));
+    }
+
+    @Override
+    public List<CommentDto> findComments(long itemId, KeysetCursor cursor, int size) {
+        if (itemRepository.getItemById(itemId) == null) {
+            throw new ObjectNotFoundException("Предмет", itemId);
+        }
+        return CommentMapper.mapToCommentDto(commentRepository.findByItemIdAfterCursor(itemId, cursor.getDate(),
+                cursor.getId(), PageRequest.of(0, size)));
+    }
+
+    // Отвечает по почасовой карте ItemAvailabilityIndex: видны только зафиксированные бронирования, занятость
+    // с точностью до часа. Интервал за пределами карты читается из базы с точными границами бронирований.
+    // Прошедшее время не показывается: начало сдвигается на текущий момент.
+    @Override
+    public ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        Item item = itemRepository.getItemById(itemId);
+        if (item == null) {
+            throw new ObjectNotFoundException("Предмет", itemId);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime end = to != null ? to : start.plus(DEFAULT_AVAILABILITY_HORIZON);
+        if (!start.isBefore(end)) {
+            throw new ObjectNotValidException("Конец периода должен быть позже его начала и текущего момента");
+        }
+        if (Duration.between(start, end).compareTo(MAX_AVAILABILITY_HORIZON) > 0) {
+            throw new ObjectNotValidException("Период не может быть длиннее " + MAX_AVAILABILITY_HORIZON.toDays() + " дней");
+        }
+        List<PeriodDto> busy = itemAvailabilityIndex.findBusyPeriods(itemId, start, end)
+                .orElseGet(() -> bookingRepository.findPeriodsByItemId(itemId, BookingStatus.RELEASED, start, end)
+                        .stream()
+                        .map(period -> clip(period, start, end))
+                        .collect(Collectors.toList()));
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .available(item.getAvailable())
+                .from(start)
+                .to(end)
+                .free(item.getAvailable() ? freePeriods(busy, start, end) : Collections.emptyList())
+                .busy(busy)
+                .build();
     }
 
     @Override
@@ -86,9 +144,7 @@ public class ItemServiceImpl implements ItemService {
         if (searchPhrase == null || searchPhrase.trim().isEmpty()) {
             return Collections.emptyList();
         }
-        PageRequest page = PageRequest.of(from / size, size);
-
-        return itemRepository.findByNameOrDescription(searchPhrase, page)
+        return searchEngine.search(searchPhrase, from, size)
                 .stream()
                 .map(ItemMapper::mapItemToItemDto)
                 .collect(Collectors.toList());
@@ -107,7 +163,10 @@ public class ItemServiceImpl implements ItemService {
                     .orElseThrow(ObjectNotFoundException::new);
         }
         Item item = ItemMapper.mapItemDtoToItem(itemDto, owner.get(), itemRequest);
-        itemDto = ItemMapper.mapItemToItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemDto = ItemMapper.mapItemToItemDto(savedItem);
+        bookingPointerService.createFor(itemDto.getId());
+        searchEngine.onItemSaved(savedItem);
         log.info("Предмет с идентификатором {} был добавлен для пользователя {} был создан", item.getId(), ownerId);
         return itemDto;
     }
@@ -132,11 +191,36 @@ public class ItemServiceImpl implements ItemService {
             throw new ObjectNotFoundException("Пользователь", ownerId);
         }
         ItemMapper.mapItemDtoToItemForUpdate(itemDto, item, newOwner.get());
-        itemDto = ItemMapper.mapItemToItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemDto = ItemMapper.mapItemToItemDto(savedItem);
+        searchEngine.onItemSaved(savedItem);
         log.info("Данные предмета с идентификатором {} были обновлены", item.getId());
         return itemDto;
     }
 
+    // Промежутки между занятыми периодами; периоды упорядочены по началу и могут пересекаться
+    private static List<PeriodDto> freePeriods(List<PeriodDto> busy, LocalDateTime from, LocalDateTime to) {
+        List<PeriodDto> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (PeriodDto period : busy) {
+            if (period.getStart().isAfter(cursor)) {
+                free.add(new PeriodDto(cursor, period.getStart()));
+            }
+            if (period.getEnd().isAfter(cursor)) {
+                cursor = period.getEnd();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new PeriodDto(cursor, to));
+        }
+        return free;
+    }
+
+    private static PeriodDto clip(PeriodDto period, LocalDateTime from, LocalDateTime to) {
+        return new PeriodDto(period.getStart().isBefore(from) ? from : period.getStart(),
+                period.getEnd().isAfter(to) ? to : period.getEnd());
+    }
+
     @Transactional
     @Override
     public CommentDto addComment(Long itemId, Long userId, CommentDto commentDto) {
@@ -148,8 +232,8 @@ public class ItemServiceImpl implements ItemService {
         if (user.isEmpty()) {
             throw new ObjectNotFoundException();
         }
-        List<Booking> bookings = bookingRepository.findByItemIdAndBookerIdAndStatusNotAndEndBefore(
-                itemId, userId, BookingStatus.REJECTED, LocalDateTime.now());
+        List<Booking> bookings = bookingRepository.findByItemIdAndBookerIdAndStatusNotInAndEndBefore(
+                itemId, userId, BookingStatus.RELEASED, LocalDateTime.now());
         if (bookings.isEmpty()) {
             throw new BadRequestException("Нельзя оставить комментарий без бронирования");
         }
@@ -1,9 +1,12 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoWithItems;
+import ru.practicum.shareit.util.ConditionalRequest;
 
 import java.util.List;
 
@@ -25,10 +28,11 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDtoWithItems> findAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                         @RequestParam(defaultValue = "0") int from,
-                                                         @RequestParam(defaultValue = "10") int size) {
-        return requestService.findAll(userId, from, size);
+    public ResponseEntity<List<ItemRequestDtoWithItems>> findAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                         @RequestParam(defaultValue = "0") int from,
+                                                                         @RequestParam(defaultValue = "10") int size,
+                                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return new ConditionalRequest(ifNoneMatch).respond(requestService.findTagged(userId, from, size));
     }
 
     @GetMapping("/{requestId}")
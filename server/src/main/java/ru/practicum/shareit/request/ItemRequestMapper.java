@@ -5,6 +5,7 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoWithItems;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.EntityTag;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -13,6 +14,16 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 public class ItemRequestMapper {
+    public static EntityTag tagOf(List<ItemRequest> itemRequests, Map<Long, List<Item>> items) {
+        EntityTag tag = new EntityTag();
+        for (ItemRequest itemRequest : itemRequests) {
+            tag.add("request", itemRequest.getId(), itemRequest.getDescription(), itemRequest.getCreated());
+            items.getOrDefault(itemRequest.getId(), Collections.emptyList())
+                    .forEach(i -> ItemMapper.addToTag(tag, i));
+        }
+        return tag;
+    }
+
     public static ItemRequest mapToItemRequest(ItemRequestDto itemRequestDto, User user) {
         return ItemRequest.builder()
                 .description(itemRequestDto.getDescription())
@@ -5,12 +5,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.schema.RequiresIndex;
 
 import java.util.List;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @RequiresIndex(table = "requests", columns = {"user_id", "created"})
     List<ItemRequest> findByRequesterId(Long userId, Sort sort);
 
+    @RequiresIndex(table = "requests", columns = {"created"})
     Page<ItemRequest> findByRequesterIdNot(Long userId, Pageable page);
 }
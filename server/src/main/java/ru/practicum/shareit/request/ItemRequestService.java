@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoWithItems;
+import ru.practicum.shareit.util.Tagged;
 
 import java.util.List;
 
@@ -10,7 +11,8 @@ public interface ItemRequestService {
 
     List<ItemRequestDtoWithItems> findAll(Long userId);
 
-    List<ItemRequestDtoWithItems> findAll(Long userId, int from, int size);
+    // Выборка вместе с ETag для условных запросов
+    Tagged<List<ItemRequestDtoWithItems>> findTagged(Long userId, int from, int size);
 
     ItemRequestDto findById(Long userId, Long requestId);
 }
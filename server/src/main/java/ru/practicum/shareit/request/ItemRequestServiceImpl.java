@@ -11,8 +11,10 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoWithItems;
+import ru.practicum.shareit.user.UserIdIndex;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.Tagged;
 
 import java.util.List;
 import java.util.Map;
@@ -26,6 +28,7 @@ import java.util.stream.Collectors;
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository requestRepository;
     private final UserRepository userRepository;
+    private final UserIdIndex userIdIndex;
     private final ItemRepository itemRepository;
 
     @Override
@@ -39,8 +42,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestDtoWithItems> findAll(Long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(ObjectNotFoundException::new);
+        userIdIndex.requireExists(userId);
         Sort sort = Sort.by("created").descending();
         List<ItemRequest> itemRequests = requestRepository.findByRequesterId(userId, sort);
         Map<Long, List<Item>> items = itemRepository.findByRequestIdIn(itemRequests.stream()
@@ -52,9 +54,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
-    public List<ItemRequestDtoWithItems> findAll(Long userId, int from, int size) {
-        userRepository.findById(userId)
-                .orElseThrow(ObjectNotFoundException::new);
+    public Tagged<List<ItemRequestDtoWithItems>> findTagged(Long userId, int from, int size) {
+        userIdIndex.requireExists(userId);
         List<ItemRequest> itemRequests;
         PageRequest page = PageRequest.of(from / size, size, Sort.by("created").descending());
         itemRequests = requestRepository.findByRequesterIdNot(userId, page)
@@ -64,13 +65,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                         .collect(Collectors.toSet()))
                 .stream()
                 .collect(Collectors.groupingBy(i -> i.getRequest().getId()));
-        return ItemRequestMapper.mapToItemRequestDto(itemRequests, items);
+        return Tagged.of(ItemRequestMapper.tagOf(itemRequests, items),
+                () -> ItemRequestMapper.mapToItemRequestDto(itemRequests, items));
     }
 
     @Override
     public ItemRequestDto findById(Long userId, Long requestId) {
-        userRepository.findById(userId)
-                .orElseThrow(ObjectNotFoundException::new);
+        userIdIndex.requireExists(userId);
         ItemRequest itemRequest = requestRepository.findById(requestId)
                 .orElseThrow(ObjectNotFoundException::new);
         List<Item> items = itemRepository.findByRequestIdIn(Set.of(requestId));
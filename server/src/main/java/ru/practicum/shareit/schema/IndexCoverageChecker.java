@@ -0,0 +1,113 @@
+package ru.practicum.shareit.schema;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Сверяет объявленные в репозиториях {@link RequiresIndex} с индексами в базе
+ * и предупреждает о запросах, которым не хватает индекса.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndexCoverageChecker {
+    private final DataSource dataSource;
+    private final ListableBeanFactory beanFactory;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkIndexes() {
+        try {
+            List<String> uncovered = findUncoveredQueries();
+            uncovered.forEach(query -> log.warn("Запрос не поддержан индексом: {}", query));
+            log.info("Проверка индексов завершена, не найдено индексов: {}", uncovered.size());
+        } catch (SQLException e) {
+            log.warn("Не удалось проверить индексы: {}", e.getMessage());
+        }
+    }
+
+    // Запросы в виде "Репозиторий.метод -> таблица(колонки)", для которых в базе нет подходящего индекса
+    public List<String> findUncoveredQueries() throws SQLException {
+        List<String> uncovered = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, List<List<String>>> indexesByTable = new HashMap<>();
+            for (Method method : annotatedRepositoryMethods()) {
+                for (RequiresIndex requirement : method.getAnnotationsByType(RequiresIndex.class)) {
+                    List<List<String>> indexes = indexesByTable.computeIfAbsent(requirement.table(),
+                            table -> readIndexes(metaData, table));
+                    if (!isCovered(indexes, requirement.columns())) {
+                        uncovered.add(method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                                + " -> " + requirement.table() + "(" + String.join(", ", requirement.columns()) + ")");
+                    }
+                }
+            }
+        }
+        return uncovered;
+    }
+
+    private List<Method> annotatedRepositoryMethods() {
+        Repositories repositories = new Repositories(beanFactory);
+        List<Method> methods = new ArrayList<>();
+        for (Class<?> domainType : repositories) {
+            repositories.getRepositoryInformationFor(domainType)
+                    // getMethods: аннотации объявлены и в самом репозитории, и в его фрагментах
+                    .ifPresent(info -> Arrays.stream(info.getRepositoryInterface().getMethods())
+                            .filter(m -> m.getAnnotationsByType(RequiresIndex.class).length > 0)
+                            .forEach(methods::add));
+        }
+        return methods;
+    }
+
+    private static boolean isCovered(List<List<String>> indexes, String[] columns) {
+        List<String> required = Arrays.stream(columns)
+                .map(c -> c.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+        return indexes.stream()
+                .anyMatch(index -> index.size() >= required.size()
+                        && index.subList(0, required.size()).equals(required));
+    }
+
+    // Колонки каждого индекса таблицы в порядке следования
+    private static List<List<String>> readIndexes(DatabaseMetaData metaData, String table) {
+        Map<String, Map<Integer, String>> indexes = new HashMap<>();
+        try {
+            String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+            try (ResultSet rs = metaData.getIndexInfo(null, null, tableName, false, true)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (indexName == null || column == null) {
+                        continue;
+                    }
+                    indexes.computeIfAbsent(indexName, name -> new TreeMap<>())
+                            .put((int) rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось прочитать индексы таблицы {}: {}", table, e.getMessage());
+        }
+        return indexes.values().stream()
+                .map(columns -> new ArrayList<>(columns.values()))
+                .collect(Collectors.toList());
+    }
+}
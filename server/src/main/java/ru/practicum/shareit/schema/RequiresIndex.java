@@ -0,0 +1,20 @@
+package ru.practicum.shareit.schema;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Индекс, на который рассчитан запрос репозитория: columns должны быть началом какого-либо индекса таблицы.
+ * Наличие индексов проверяет IndexCoverageChecker при старте приложения.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(RequiresIndexes.class)
+public @interface RequiresIndex {
+    String table();
+
+    String[] columns();
+}
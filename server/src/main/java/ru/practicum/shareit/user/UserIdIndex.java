@@ -0,0 +1,89 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.datasource.PrimaryRouting;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Id существующих пользователей для проверки существования без загрузки сущности.
+ * Заполняется при старте и поддерживается после фиксации создания и удаления пользователей.
+ * Id, которого нет в множестве, проверяется запросом existsById к основной базе.
+ * <p>
+ * Множество свое у каждого экземпляра сервера: удаления через другие экземпляры оно узнает только
+ * при очередном перестроении из базы (shareit.user-index.rebuild-delay).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserIdIndex {
+    private final UserRepository userRepository;
+    private volatile Set<Long> ids = ConcurrentHashMap.newKeySet();
+    // Id, удаленные во время перестроения: запрос мог прочитать их до фиксации удаления
+    private volatile Set<Long> removedDuringRebuild;
+    // Число удалений; найденный в базе id не запоминается, если за время проверки кто-то был удален
+    private final AtomicLong removals = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${shareit.user-index.rebuild-delay:60000}",
+            fixedDelayString = "${shareit.user-index.rebuild-delay:60000}")
+    public synchronized void rebuild() {
+        Set<Long> removed = ConcurrentHashMap.newKeySet();
+        removedDuringRebuild = removed;
+        Set<Long> fresh = ConcurrentHashMap.newKeySet();
+        fresh.addAll(PrimaryRouting.call(userRepository::findAllIds));
+        fresh.removeAll(removed);
+        ids = fresh;
+        removedDuringRebuild = null;
+        // Удаления, зафиксированные между первой чисткой и подменой множества
+        fresh.removeAll(removed);
+        log.info("Загружено {} id пользователей", fresh.size());
+    }
+
+    public boolean exists(long userId) {
+        if (ids.contains(userId)) {
+            return true;
+        }
+        long removalsBefore = removals.get();
+        // Пользователь, созданный через другой экземпляр, может еще не дойти до реплики
+        if (PrimaryRouting.call(() -> userRepository.existsById(userId))) {
+            if (removals.get() == removalsBefore) {
+                ids.add(userId);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public void requireExists(long userId) {
+        if (!exists(userId)) {
+            throw new ObjectNotFoundException();
+        }
+    }
+
+    public void add(long userId) {
+        TransactionHooks.afterCommit(() -> ids.add(userId));
+    }
+
+    // До фиксации удаления пользователь еще существует для остальных транзакций
+    public void remove(long userId) {
+        TransactionHooks.afterCommit(() -> {
+            removals.incrementAndGet();
+            Set<Long> removed = removedDuringRebuild;
+            if (removed != null) {
+                removed.add(userId);
+            }
+            ids.remove(userId);
+        });
+    }
+}
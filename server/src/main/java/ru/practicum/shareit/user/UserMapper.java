@@ -2,8 +2,14 @@ package ru.practicum.shareit.user;
 
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.EntityTag;
 
 public class UserMapper {
+    // Версия меняется при каждом изменении пользователя, поэтому ее достаточно для ETag
+    public static void addToTag(EntityTag tag, User user) {
+        tag.add("user", user.getId(), user.getVersion());
+    }
+
     public static UserDto mapUserToUserDto(User user) {
         return UserDto.builder()
                 .id(user.getId())
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.UserIdIndex;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
@@ -20,6 +21,7 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserIdIndex userIdIndex;
 
     @Override
     public List<UserDto> getAllUsers() {
@@ -43,6 +45,7 @@ public class UserServiceImpl implements UserService {
     public UserDto createUser(UserDto userDto) {
         User user = UserMapper.mapUserDtoToUser(userDto);
         userDto = UserMapper.mapUserToUserDto(userRepository.save(user));
+        userIdIndex.add(userDto.getId());
         log.info("Пользователь с идентификатором {} и почтой {} был создан", user.getId(), user.getEmail());
         return userDto;
     }
@@ -64,6 +67,7 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     public void deleteUserById(Long userId) {
+        userIdIndex.remove(userId);
         userRepository.deleteById(userId);
     }
 }
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Function;
+
+/**
+ * Условный GET с заголовком If-None-Match. Контроллер передает сюда выборку с ETag из сервиса
+ * и получает 304 без тела, если состояние у клиента актуально. Тело при этом не строится.
+ */
+public class ConditionalRequest {
+    private final String ifNoneMatch;
+
+    public ConditionalRequest(String ifNoneMatch) {
+        this.ifNoneMatch = ifNoneMatch;
+    }
+
+    public <T> ResponseEntity<T> respond(Tagged<T> tagged) {
+        return respond(tagged, body -> new HttpHeaders());
+    }
+
+    // Дополнительные заголовки строятся по телу и отдаются только вместе с ним
+    public <T> ResponseEntity<T> respond(Tagged<T> tagged, Function<T, HttpHeaders> headers) {
+        if (matches(tagged.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tagged.getEtag()).build();
+        }
+        T body = tagged.getBody();
+        return ResponseEntity.ok().eTag(tagged.getEtag()).headers(headers.apply(body)).body(body);
+    }
+
+    // Для If-None-Match используется слабое сравнение: префикс W/ не учитывается
+    private boolean matches(String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
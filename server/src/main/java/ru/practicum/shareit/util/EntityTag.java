@@ -0,0 +1,25 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Строгий ETag ответа, собранный из состояния отдаваемых сущностей, а не из сериализованного тела.
+ * Значения добавляются в порядке, в котором сущности попадут в ответ.
+ */
+public class EntityTag {
+    private final StringBuilder state = new StringBuilder();
+
+    public EntityTag add(Object... values) {
+        for (Object value : values) {
+            state.append(value).append('|');
+        }
+        state.append(';');
+        return this;
+    }
+
+    public String build() {
+        return "\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.util;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.function.Supplier;
+
+/**
+ * ETag выборки, собранный из версий вошедших в нее сущностей, и отложенное построение тела.
+ * Сравнение с If-None-Match выполняет веб-слой; тело строится, только если ответ будет 200.
+ * Поставщик тела работает уже после транзакции сервиса, поэтому использует только загруженные данные.
+ */
+@RequiredArgsConstructor
+public class Tagged<T> {
+    @Getter
+    private final String etag;
+    private final Supplier<T> body;
+
+    public T getBody() {
+        return body.get();
+    }
+
+    public static <T> Tagged<T> of(EntityTag tag, Supplier<T> body) {
+        return new Tagged<>(tag.build(), body);
+    }
+}
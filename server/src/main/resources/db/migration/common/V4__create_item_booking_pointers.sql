@@ -0,0 +1,26 @@
+-- Указатели на последнее и ближайшее будущее бронирования предмета
+CREATE TABLE IF NOT EXISTS item_booking_pointers (
+    item_id BIGINT NOT NULL,
+    last_booking_id BIGINT,
+    next_booking_id BIGINT,
+    next_start TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_item_booking_pointers PRIMARY KEY (item_id),
+    CONSTRAINT fk_item_booking_pointers_items FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    CONSTRAINT fk_item_booking_pointers_last FOREIGN KEY (last_booking_id) REFERENCES bookings (id) ON DELETE SET NULL,
+    CONSTRAINT fk_item_booking_pointers_next FOREIGN KEY (next_booking_id) REFERENCES bookings (id) ON DELETE SET NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_item_booking_pointers_next_start ON item_booking_pointers (next_start);
+
+INSERT INTO item_booking_pointers (item_id, last_booking_id, next_booking_id, next_start)
+SELECT i.id,
+       (SELECT b.id FROM bookings b
+        WHERE b.item_id = i.id AND b.status <> 'REJECTED' AND b.start_date <= LOCALTIMESTAMP
+        ORDER BY b.start_date DESC, b.id DESC LIMIT 1),
+       (SELECT b.id FROM bookings b
+        WHERE b.item_id = i.id AND b.status <> 'REJECTED' AND b.start_date > LOCALTIMESTAMP
+        ORDER BY b.start_date, b.id LIMIT 1),
+       (SELECT MIN(b.start_date) FROM bookings b
+        WHERE b.item_id = i.id AND b.status <> 'REJECTED' AND b.start_date > LOCALTIMESTAMP)
+FROM items i
+WHERE NOT EXISTS (SELECT 1 FROM item_booking_pointers p WHERE p.item_id = i.id);
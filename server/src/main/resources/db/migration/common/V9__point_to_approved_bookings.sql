@@ -0,0 +1,10 @@
+-- Указатели ссылаются только на подтвержденные бронирования: пересчитываем заполненные раньше
+UPDATE item_booking_pointers p
+SET last_booking_id = (SELECT b.id FROM bookings b
+                       WHERE b.item_id = p.item_id AND b.status = 'APPROVED' AND b.start_date <= LOCALTIMESTAMP
+                       ORDER BY b.start_date DESC, b.id DESC LIMIT 1),
+    next_booking_id = (SELECT b.id FROM bookings b
+                       WHERE b.item_id = p.item_id AND b.status = 'APPROVED' AND b.start_date > LOCALTIMESTAMP
+                       ORDER BY b.start_date, b.id LIMIT 1),
+    next_start      = (SELECT MIN(b.start_date) FROM bookings b
+                       WHERE b.item_id = p.item_id AND b.status = 'APPROVED' AND b.start_date > LOCALTIMESTAMP);
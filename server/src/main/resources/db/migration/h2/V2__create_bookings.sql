@@ -0,0 +1,12 @@
+-- H2 не поддерживает exclusion constraint, пересечения проверяет BookingIntervalIndex
+CREATE TABLE IF NOT EXISTS bookings
+(
+    id         BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    booker_id  BIGINT,
+    item_id    BIGINT,
+    start_date timestamp without time zone,
+    end_date   timestamp without time zone,
+    status     VARCHAR(50),
+    CONSTRAINT fk_bookings_to_items FOREIGN KEY (item_id) REFERENCES items (id),
+    CONSTRAINT fk_bookings_to_bookers FOREIGN KEY (booker_id) REFERENCES users (id)
+);
@@ -0,0 +1,2 @@
+-- Поиск просроченных ожидающих бронирований; H2 не поддерживает частичные индексы
+CREATE INDEX IF NOT EXISTS idx_bookings_waiting_start ON bookings (status, start_date);
@@ -0,0 +1,78 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+CREATE TABLE IF NOT EXISTS bookings
+(
+    id         BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    booker_id  BIGINT,
+    item_id    BIGINT,
+    start_date timestamp without time zone,
+    end_date   timestamp without time zone,
+    status     VARCHAR(50),
+    CONSTRAINT fk_bookings_to_items FOREIGN KEY (item_id) REFERENCES items (id),
+    CONSTRAINT fk_bookings_to_bookers FOREIGN KEY (booker_id) REFERENCES users (id)
+);
+
+-- Бронирования одного предмета не должны пересекаться по времени (кроме отклоненных).
+-- Таблица могла быть создана старым schema.sql без ограничения, поэтому добавляем его отдельно.
+-- Старые данные могут содержать пересечения, с которыми ограничение не создастся. Перед его добавлением
+-- такие бронирования отклоняются: по каждому предмету оставляются подтвержденные, затем более ранние (по id),
+-- остальные пересекающиеся переводятся в REJECTED. Бронирования с концом раньше начала тоже отклоняются.
+-- Исходный статус каждого отклоненного бронирования сохраняется в bookings_period_conflicts.
+CREATE TABLE IF NOT EXISTS bookings_period_conflicts
+(
+    booking_id      BIGINT PRIMARY KEY,
+    item_id         BIGINT,
+    previous_status VARCHAR(50),
+    reason          VARCHAR(50),
+    resolved_at     timestamp without time zone DEFAULT now()
+);
+
+DO
+$$
+DECLARE
+    booking  RECORD;
+    rejected INT := 0;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ex_bookings_item_period') THEN
+        INSERT INTO bookings_period_conflicts (booking_id, item_id, previous_status, reason)
+        SELECT id, item_id, status, 'INVALID_PERIOD'
+        FROM bookings
+        WHERE status <> 'REJECTED'
+          AND end_date < start_date;
+        UPDATE bookings SET status = 'REJECTED' WHERE status <> 'REJECTED' AND end_date < start_date;
+
+        -- Порядок обхода совпадает с приоритетом: к моменту проверки бронирования все более приоритетные
+        -- уже либо оставлены, либо отклонены
+        FOR booking IN
+            SELECT id, item_id, start_date, end_date, status
+            FROM bookings
+            WHERE status <> 'REJECTED'
+            ORDER BY item_id, (status = 'APPROVED') DESC, id
+        LOOP
+            IF EXISTS (SELECT 1
+                       FROM bookings kept
+                       WHERE kept.item_id = booking.item_id
+                         AND kept.id <> booking.id
+                         AND kept.status <> 'REJECTED'
+                         AND tsrange(kept.start_date, kept.end_date) && tsrange(booking.start_date, booking.end_date)
+                         AND ((kept.status = 'APPROVED') > (booking.status = 'APPROVED')
+                             OR ((kept.status = 'APPROVED') = (booking.status = 'APPROVED') AND kept.id < booking.id))) THEN
+                INSERT INTO bookings_period_conflicts (booking_id, item_id, previous_status, reason)
+                VALUES (booking.id, booking.item_id, booking.status, 'CROSSED_PERIOD');
+                UPDATE bookings SET status = 'REJECTED' WHERE id = booking.id;
+                rejected := rejected + 1;
+            END IF;
+        END LOOP;
+
+        IF rejected > 0 THEN
+            RAISE WARNING 'Отклонено % пересекающихся бронирований, см. bookings_period_conflicts', rejected;
+        END IF;
+
+        ALTER TABLE bookings
+            ADD CONSTRAINT ex_bookings_item_period EXCLUDE USING gist (
+                item_id WITH =,
+                tsrange(start_date, end_date) WITH &&
+            ) WHERE (status <> 'REJECTED');
+    END IF;
+END
+$$;
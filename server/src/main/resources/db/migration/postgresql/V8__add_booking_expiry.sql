@@ -0,0 +1,10 @@
+-- Просроченные (EXPIRED) бронирования, как и отклоненные, не занимают период предмета
+ALTER TABLE bookings DROP CONSTRAINT IF EXISTS ex_bookings_item_period;
+ALTER TABLE bookings
+    ADD CONSTRAINT ex_bookings_item_period EXCLUDE USING gist (
+        item_id WITH =,
+        tsrange(start_date, end_date) WITH &&
+    ) WHERE (status NOT IN ('REJECTED', 'EXPIRED'));
+
+-- Поиск просроченных ожидающих бронирований; частичный индекс содержит только WAITING
+CREATE INDEX IF NOT EXISTS idx_bookings_waiting_start ON bookings (status, start_date) WHERE status = 'WAITING';
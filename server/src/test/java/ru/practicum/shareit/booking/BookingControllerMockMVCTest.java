@@ -5,22 +5,34 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.Tagged;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -75,6 +87,27 @@ public class BookingControllerMockMVCTest {
                 .andExpect(jsonPath("$.status", is(bookingDto.getStatus().name()), String.class));
     }
 
+    @Test
+    void testAddBookings() throws Exception {
+        when(bookingService.addAll(anyList(), anyLong()))
+                .thenReturn(List.of(
+                        new BookingBatchResultDto(0, 1L, bookingDto, null),
+                        new BookingBatchResultDto(1, 1L, null, "Имеются пересечения с периодами по существующим бронированиям")));
+
+        mvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(newBookingDto, newBookingDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index", is(0)))
+                .andExpect(jsonPath("$[0].booking.id", is(bookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].error", is("Имеются пересечения с периодами по существующим бронированиям")));
+    }
+
     @Test
     void testApproveBooking() throws Exception {
         when(bookingService.approveBooking(anyLong(), anyBoolean(), anyLong()))
@@ -94,6 +127,40 @@ public class BookingControllerMockMVCTest {
                 .andExpect(jsonPath("$.status", is(approvedBookingDto.getStatus().name()), String.class));
     }
 
+    @Test
+    void testApproveBookings() throws Exception {
+        when(bookingService.approveBookings(anyList(), anyBoolean(), anyLong()))
+                .thenReturn(new BookingApprovalResultDto(BookingStatus.APPROVED, List.of(1L, 2L), List.of(3L)));
+
+        mvc.perform(patch("/bookings/approve?approved=true")
+                        .content(mapper.writeValueAsString(List.of(1L, 2L, 3L)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is(BookingStatus.APPROVED.name())))
+                .andExpect(jsonPath("$.updated.length()", is(2)))
+                .andExpect(jsonPath("$.skipped[0]", is(3L), Long.class));
+    }
+
+    @Test
+    void testGetOwnerSummary() throws Exception {
+        when(bookingService.summarizeByOwnerId(1L))
+                .thenReturn(new BookingSummaryDto(4L, 1L, 1L, 2L, 2L, 1L, 0L));
+
+        mvc.perform(get("/bookings/owner/summary")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all", is(4L), Long.class))
+                .andExpect(jsonPath("$.future", is(2L), Long.class))
+                .andExpect(jsonPath("$.expired", is(0L), Long.class));
+    }
+
     @Test
     void testGetBookingInfo() throws Exception {
         when(bookingService.findByOwnerIdOrBookerId(anyLong(), anyLong()))
@@ -115,8 +182,8 @@ public class BookingControllerMockMVCTest {
 
     @Test
     void testGetBookerBookings() throws Exception {
-        when(bookingService.findAllByBookerIdAndBookingState(anyLong(), any(), anyInt(), anyInt()))
-                .thenReturn(List.of(bookingDto));
+        when(bookingService.findTaggedByBookerIdAndBookingState(anyLong(), any(), anyInt(), anyInt()))
+                .thenReturn(new Tagged<>("\"tag\"", () -> List.of(bookingDto)));
 
         mvc.perform(get("/bookings")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -134,8 +201,8 @@ public class BookingControllerMockMVCTest {
 
     @Test
     void testGetOwnerBookings() throws Exception {
-        when(bookingService.findAllByOwnerIdAndBookingState(anyLong(), any(), anyInt(), anyInt()))
-                .thenReturn(List.of(bookingDto));
+        when(bookingService.findTaggedByOwnerIdAndBookingState(anyLong(), any(), anyInt(), anyInt()))
+                .thenReturn(new Tagged<>("\"tag\"", () -> List.of(bookingDto)));
 
         mvc.perform(get("/bookings/owner")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -150,4 +217,86 @@ public class BookingControllerMockMVCTest {
                 .andExpect(jsonPath("$[0].end", is(bookingDto.getEnd().format(formatter)), String.class))
                 .andExpect(jsonPath("$[0].status", is(bookingDto.getStatus().name()), String.class));
     }
+
+    @Test
+    void testGetBookerBookingsByCursor() throws Exception {
+        when(bookingService.findTaggedByBookerIdAndBookingState(anyLong(), any(), any(KeysetCursor.class), anyInt()))
+                .thenReturn(new Tagged<>("\"tag\"", () -> List.of(bookingDto)));
+
+        mvc.perform(get("/bookings?cursor=&size=1")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1")
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(KeysetCursor.NEXT_CURSOR_HEADER,
+                        new KeysetCursor(bookingDto.getStart(), bookingDto.getId()).encode()))
+                .andExpect(jsonPath("$[0].id", is(bookingDto.getId()), Long.class));
+    }
+
+    @Test
+    void testGetOwnerBookingsByCursorLastPage() throws Exception {
+        when(bookingService.findTaggedByOwnerIdAndBookingState(anyLong(), any(), any(KeysetCursor.class), anyInt()))
+                .thenReturn(new Tagged<>("\"tag\"", () -> List.of(bookingDto)));
+
+        mvc.perform(get("/bookings/owner?size=5&cursor=" + new KeysetCursor(end, 5L).encode())
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "2")
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(KeysetCursor.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$[0].id", is(bookingDto.getId()), Long.class));
+    }
+
+    @Test
+    void testGetBookerBookingsWithBrokenCursor() throws Exception {
+        mvc.perform(get("/bookings?cursor=broken")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1")
+                )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetBookerBookingsNotModified() throws Exception {
+        Supplier<List<BookingDto>> body = mock(Supplier.class);
+        when(bookingService.findTaggedByBookerIdAndBookingState(anyLong(), any(), anyInt(), anyInt()))
+                .thenReturn(new Tagged<>("\"tag\"", body));
+
+        mvc.perform(get("/bookings")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"tag\"")
+                )
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"tag\""))
+                .andExpect(content().string(""));
+
+        // При совпадении ETag бронирования не отображаются в DTO
+        verify(body, never()).get();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetOwnerBookingsByCursorNotModified() throws Exception {
+        Supplier<List<BookingDto>> body = mock(Supplier.class);
+        when(bookingService.findTaggedByOwnerIdAndBookingState(anyLong(), any(), any(KeysetCursor.class), anyInt()))
+                .thenReturn(new Tagged<>("\"tag\"", body));
+
+        mvc.perform(get("/bookings/owner?cursor=&size=1")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "2")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"tag\"")
+                )
+                .andExpect(status().isNotModified())
+                .andExpect(header().doesNotExist(KeysetCursor.NEXT_CURSOR_HEADER))
+                .andExpect(content().string(""));
+
+        verify(body, never()).get();
+    }
 }
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.NewBookingDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoWithBookings;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.hasSize;
+
+@Transactional
+@SpringBootTest(
+        properties = {"db.name=test", "shareit.booking-expiry.batch-size=2"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingExpirySweeperIntegrationTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final BookingExpirySweeper sweeper;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    void testSweepExpiresStartedWaitingBookingsInBatches() {
+        UserDto owner = userService.createUser(UserDto.builder().name("Roland").email("roland@test.ru").build());
+        UserDto booker = userService.createUser(UserDto.builder().name("Voland").email("voland@test.ru").build());
+        ItemDto saw = itemService.addItem(owner.getId(),
+                ItemDto.builder().name("Пила").description("Пилит").available(true).build());
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto started = add(saw.getId(), now.minusHours(1), now.plusHours(1), booker.getId());
+        BookingDto startedEarlier = add(saw.getId(), now.minusDays(2), now.minusDays(1), booker.getId());
+        BookingDto startedEvenEarlier = add(saw.getId(), now.minusDays(4), now.minusDays(3), booker.getId());
+        BookingDto approved = add(saw.getId(), now.minusDays(6), now.minusDays(5), booker.getId());
+        bookingService.approveBooking(approved.getId(), true, owner.getId());
+        BookingDto future = add(saw.getId(), now.plusDays(1), now.plusDays(2), booker.getId());
+        DistributionSummary expiredPerRun = meterRegistry.get("shareit.booking.expiry.expired").summary();
+        double expiredBefore = expiredPerRun.totalAmount();
+
+        // Три бронирования при порции в два обрабатываются двумя порциями за один запуск
+        assertThat(sweeper.sweep(), equalTo(3));
+
+        assertThat(bookingService.findTaggedByBookerIdAndBookingState(booker.getId(), BookingState.EXPIRED, 0, 10).getBody(),
+                hasSize(3));
+        assertThat(status(started, booker), equalTo(BookingStatus.EXPIRED));
+        assertThat(status(startedEarlier, booker), equalTo(BookingStatus.EXPIRED));
+        assertThat(status(startedEvenEarlier, booker), equalTo(BookingStatus.EXPIRED));
+        assertThat(status(approved, booker), equalTo(BookingStatus.APPROVED));
+        assertThat(status(future, booker), equalTo(BookingStatus.WAITING));
+        assertThat(expiredPerRun.totalAmount() - expiredBefore, equalTo(3.0));
+        assertThat(sweeper.sweep(), equalTo(0));
+
+        // Период просроченного бронирования освобождается; указатели ссылаются только на подтвержденные
+        ItemDtoWithBookings item = (ItemDtoWithBookings) itemService.getItemById(saw.getId(), owner.getId());
+        assertThat(item.getLastBooking().getId(), equalTo(approved.getId()));
+        assertThat(item.getNextBooking(), nullValue());
+        assertThat(add(saw.getId(), now.plusMinutes(10), now.plusMinutes(20), booker.getId()).getStatus(),
+                equalTo(BookingStatus.WAITING));
+    }
+
+    private BookingDto add(long itemId, LocalDateTime start, LocalDateTime end, long bookerId) {
+        return bookingService.add(NewBookingDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .build(), bookerId);
+    }
+
+    private BookingStatus status(BookingDto booking, UserDto user) {
+        return bookingService.findByOwnerIdOrBookerId(booking.getId(), user.getId()).getStatus();
+    }
+}
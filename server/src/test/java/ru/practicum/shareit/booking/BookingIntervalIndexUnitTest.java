@@ -0,0 +1,159 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingIntervalIndexUnitTest {
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex index;
+    private final LocalDateTime start = LocalDateTime.now().plusDays(2);
+    private final LocalDateTime end = LocalDateTime.now().plusDays(4);
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(bookingRepository, 1000, 600000, 60000);
+        Booking existing = Booking.builder()
+                .id(1L)
+                .start(start)
+                .end(end)
+                .status(BookingStatus.WAITING)
+                .build();
+        Mockito
+                .when(bookingRepository.findByItemIdAndEndAfter(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(List.of(existing));
+    }
+
+    @Test
+    void testHasOverlap() {
+        assertThat(index.hasOverlap(1L, start, end), equalTo(true));
+        assertThat(index.hasOverlap(1L, start.minusDays(1), end.plusDays(1)), equalTo(true));
+        assertThat(index.hasOverlap(1L, start.plusHours(1), end.minusHours(1)), equalTo(true));
+        assertThat(index.hasOverlap(1L, start.minusDays(1), start.plusHours(1)), equalTo(true));
+        assertThat(index.hasOverlap(1L, end.minusHours(1), end.plusDays(1)), equalTo(true));
+        assertThat(index.hasOverlap(1L, start.minusDays(1), start), equalTo(false));
+        assertThat(index.hasOverlap(1L, end, end.plusDays(1)), equalTo(false));
+
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findByItemIdAndEndAfter(eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testAddAndRemove() {
+        Booking booking = Booking.builder()
+                .id(2L)
+                .start(end)
+                .end(end.plusDays(1))
+                .status(BookingStatus.WAITING)
+                .build();
+
+        assertThat(index.tryAdd(1L, booking), equalTo(true));
+        assertThat(index.hasOverlap(1L, end.plusHours(1), end.plusHours(2)), equalTo(true));
+
+        index.remove(1L, booking);
+        assertThat(index.hasOverlap(1L, end.plusHours(1), end.plusHours(2)), equalTo(false));
+    }
+
+    @Test
+    void testTryAddRejectsOccupiedPeriod() {
+        Booking overlapping = Booking.builder()
+                .id(2L)
+                .start(start.plusHours(1))
+                .end(end.plusHours(1))
+                .status(BookingStatus.WAITING)
+                .build();
+
+        assertThat(index.tryAdd(1L, overlapping), equalTo(false));
+        assertThat(index.hasOverlap(1L, end, end.plusHours(1)), equalTo(false));
+    }
+
+    @Test
+    void testTryAddGivesPeriodToOneOfConcurrentBookings() throws InterruptedException {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        // Периоды предмета загружаются заранее, чтобы потоки соревновались только за добавление
+        index.hasOverlap(1L, start, end);
+        for (long id = 2; id < 2 + threads; id++) {
+            Booking booking = Booking.builder()
+                    .id(id)
+                    .start(end.plusDays(1))
+                    .end(end.plusDays(2))
+                    .status(BookingStatus.WAITING)
+                    .build();
+            executor.submit(() -> {
+                ready.countDown();
+                go.await();
+                if (index.tryAdd(1L, booking)) {
+                    reserved.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        ready.await();
+        go.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), equalTo(true));
+
+        assertThat(reserved.get(), equalTo(1));
+    }
+
+    @Test
+    void testRemoveMatchesByBookingIdNotByStoredStart() {
+        // Даты, прочитанные из базы, округлены, а в индексе лежат исходные значения
+        Booking readBack = Booking.builder()
+                .id(1L)
+                .start(start.truncatedTo(ChronoUnit.SECONDS))
+                .end(end.truncatedTo(ChronoUnit.SECONDS))
+                .status(BookingStatus.REJECTED)
+                .build();
+
+        assertThat(index.hasOverlap(1L, start, end), equalTo(true));
+
+        index.remove(1L, readBack);
+
+        assertThat(index.hasOverlap(1L, start, end), equalTo(false));
+    }
+
+    @Test
+    void testReloadsItemAfterReloadDelay() {
+        AtomicLong nanos = new AtomicLong();
+        index = new BookingIntervalIndex(bookingRepository, 1000, 600000, 60000, nanos::get);
+        assertThat(index.hasOverlap(1L, start, end), equalTo(true));
+
+        // Бронирование отклонено в обход этого экземпляра
+        Mockito
+                .when(bookingRepository.findByItemIdAndEndAfter(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertThat(index.hasOverlap(1L, start, end), equalTo(true));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        assertThat(index.hasOverlap(1L, start, end), equalTo(false));
+        Mockito.verify(bookingRepository, Mockito.times(2))
+                .findByItemIdAndEndAfter(eq(1L), any(LocalDateTime.class));
+    }
+}
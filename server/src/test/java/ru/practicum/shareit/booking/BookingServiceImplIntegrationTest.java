@@ -1,18 +1,28 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoWithBookings;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.Tagged;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.allOf;
@@ -29,6 +39,7 @@ public class BookingServiceImplIntegrationTest {
     private final UserService userService;
     private final ItemService itemService;
     private final BookingService bookingService;
+    private final EntityManager em;
 
     @Test
     void testFindAllByBookerIdAndBookingState() {
@@ -58,8 +69,8 @@ public class BookingServiceImplIntegrationTest {
 
         BookingDto addedBooking = bookingService.add(newBookingDto, createdUserTwo.getId());
 
-        List<BookingDto> bookings = bookingService.findAllByBookerIdAndBookingState(createdUserTwo.getId(),
-                BookingState.ALL, 0, 5);
+        List<BookingDto> bookings = bookingService.findTaggedByBookerIdAndBookingState(createdUserTwo.getId(),
+                BookingState.ALL, 0, 5).getBody();
 
         assertThat(bookings, hasSize(1));
         assertThat(bookings, hasItem(allOf(
@@ -71,4 +82,270 @@ public class BookingServiceImplIntegrationTest {
                 hasProperty("end", equalTo(addedBooking.getEnd()))
         )));
     }
+
+    @Test
+    void testFindAllByBookerIdAndBookingStateByCursor() {
+        UserDto owner = userService.createUser(UserDto.builder()
+                .name("Roland")
+                .email("roland@test.ru")
+                .build());
+        UserDto booker = userService.createUser(UserDto.builder()
+                .name("Voland")
+                .email("voland@test.ru")
+                .build());
+        ItemDto item = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("Пила")
+                .description("Пилит")
+                .available(true)
+                .build());
+        // Даты бронирований хранятся с точностью до микросекунд
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).plusDays(2);
+        for (int i = 0; i < 3; i++) {
+            bookingService.add(NewBookingDto.builder()
+                    .itemId(item.getId())
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .build(), booker.getId());
+        }
+
+        List<BookingDto> firstPage = bookingService.findTaggedByBookerIdAndBookingState(booker.getId(),
+                BookingState.ALL, KeysetCursor.first(), 2).getBody();
+        BookingDto last = firstPage.get(firstPage.size() - 1);
+        List<BookingDto> secondPage = bookingService.findTaggedByBookerIdAndBookingState(booker.getId(),
+                BookingState.ALL, new KeysetCursor(last.getStart(), last.getId()), 2).getBody();
+
+        assertThat(firstPage, hasSize(2));
+        assertThat(firstPage.get(0).getStart(), equalTo(start.plusDays(2)));
+        assertThat(secondPage, hasSize(1));
+        assertThat(secondPage.get(0).getStart(), equalTo(start));
+    }
+
+    @Test
+    void testFindAllByOwnerIdAndBookingStateConditional() {
+        UserDto owner = userService.createUser(UserDto.builder()
+                .name("Roland")
+                .email("roland@test.ru")
+                .build());
+        UserDto booker = userService.createUser(UserDto.builder()
+                .name("Voland")
+                .email("voland@test.ru")
+                .build());
+        ItemDto item = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("Пила")
+                .description("Пилит")
+                .available(true)
+                .build());
+        BookingDto booking = bookingService.add(NewBookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(2))
+                .end(LocalDateTime.now().plusDays(3))
+                .build(), booker.getId());
+
+        Tagged<List<BookingDto>> first = bookingService.findTaggedByOwnerIdAndBookingState(owner.getId(),
+                BookingState.ALL, 0, 5);
+        assertThat(first.getEtag(), notNullValue());
+
+        Tagged<List<BookingDto>> unchanged = bookingService.findTaggedByOwnerIdAndBookingState(owner.getId(),
+                BookingState.ALL, 0, 5);
+        assertThat(unchanged.getEtag(), equalTo(first.getEtag()));
+
+        bookingService.approveBooking(booking.getId(), true, owner.getId());
+        Tagged<List<BookingDto>> afterApprove = bookingService.findTaggedByOwnerIdAndBookingState(owner.getId(),
+                BookingState.ALL, 0, 5);
+
+        assertThat(afterApprove.getBody(), hasSize(1));
+        assertThat(afterApprove.getEtag(), not(equalTo(first.getEtag())));
+    }
+
+    @Test
+    void testFindAllByOwnerIdAndBookingStateStatementCount() {
+        UserDto owner = userService.createUser(UserDto.builder()
+                .name("Roland")
+                .email("roland@test.ru")
+                .build());
+        for (int i = 0; i < 6; i++) {
+            UserDto booker = userService.createUser(UserDto.builder()
+                    .name("Booker" + i)
+                    .email("booker" + i + "@test.ru")
+                    .build());
+            ItemDto item = itemService.addItem(owner.getId(), ItemDto.builder()
+                    .name("Пила " + i)
+                    .description("Пилит")
+                    .available(true)
+                    .build());
+            bookingService.add(NewBookingDto.builder()
+                    .itemId(item.getId())
+                    .start(LocalDateTime.now().plusDays(i + 1))
+                    .end(LocalDateTime.now().plusDays(i + 1).plusHours(1))
+                    .build(), booker.getId());
+        }
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingDto> bookings = bookingService.findTaggedByOwnerIdAndBookingState(owner.getId(), BookingState.ALL,
+                0, 10).getBody();
+
+        assertThat(bookings, hasSize(6));
+        // Проверка пользователя и выборка бронирований вместе с предметами и арендаторами
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+    }
+
+    @Test
+    void testAddAllReportsPerEntryOutcomes() {
+        UserDto owner = userService.createUser(UserDto.builder()
+                .name("Roland")
+                .email("roland@test.ru")
+                .build());
+        UserDto booker = userService.createUser(UserDto.builder()
+                .name("Voland")
+                .email("voland@test.ru")
+                .build());
+        ItemDto saw = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("Пила")
+                .description("Пилит")
+                .available(true)
+                .build());
+        ItemDto drill = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Сверлит")
+                .available(true)
+                .build());
+        ItemDto hammer = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("Молоток")
+                .description("Забивает")
+                .available(false)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingBatchResultDto> results = bookingService.addAll(List.of(
+                newBooking(saw.getId(), start, start.plusDays(1)),
+                newBooking(saw.getId(), start.plusHours(12), start.plusDays(2)),
+                newBooking(drill.getId(), start, start.plusDays(1)),
+                newBooking(hammer.getId(), start, start.plusDays(1)),
+                newBooking(999999L, start, start.plusDays(1)),
+                newBooking(drill.getId(), start.plusDays(3), start.plusDays(2))), booker.getId());
+        em.flush();
+
+        assertThat(results, hasSize(6));
+        assertThat(results.get(0).getBooking(), notNullValue());
+        assertThat(results.get(1).getError(), equalTo("Имеются пересечения с периодами по существующим бронированиям"));
+        assertThat(results.get(2).getBooking(), notNullValue());
+        assertThat(results.get(3).getError(), equalTo("Предмет недоступен для бронирования"));
+        assertThat(results.get(4).getError(), equalTo("Объект c id - 999999 не найден"));
+        assertThat(results.get(5).getError(), equalTo("Дата начала не может быть равна или позже даты конца"));
+        // Вставляются только принятые бронирования
+        assertThat(statistics.getEntityInsertCount(), equalTo(2L));
+
+        assertThat(bookingService.findTaggedByBookerIdAndBookingState(booker.getId(), BookingState.ALL, 0, 10).getBody(),
+                hasSize(2));
+        // Ожидающие подтверждения бронирования в указатели предметов не попадают
+        assertThat(((ItemDtoWithBookings) itemService.getItemById(saw.getId(), owner.getId())).getNextBooking(),
+                nullValue());
+    }
+
+    @Test
+    void testApproveBookingsUpdatesOnlyWaitingBookingsOfOwner() {
+        UserDto owner = userService.createUser(UserDto.builder()
+                .name("Roland")
+                .email("roland@test.ru")
+                .build());
+        UserDto booker = userService.createUser(UserDto.builder()
+                .name("Voland")
+                .email("voland@test.ru")
+                .build());
+        ItemDto saw = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("Пила")
+                .description("Пилит")
+                .available(true)
+                .build());
+        ItemDto drill = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Сверлит")
+                .available(true)
+                .build());
+        ItemDto foreignItem = itemService.addItem(booker.getId(), ItemDto.builder()
+                .name("Молоток")
+                .description("Забивает")
+                .available(true)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto firstSawBooking = bookingService.add(newBooking(saw.getId(), start, start.plusDays(1)), booker.getId());
+        BookingDto secondSawBooking = bookingService.add(newBooking(saw.getId(), start.plusDays(2), start.plusDays(3)),
+                booker.getId());
+        BookingDto drillBooking = bookingService.add(newBooking(drill.getId(), start, start.plusDays(1)), booker.getId());
+        BookingDto foreignBooking = bookingService.add(newBooking(foreignItem.getId(), start, start.plusDays(1)),
+                owner.getId());
+
+        BookingApprovalResultDto result = bookingService.approveBookings(List.of(drillBooking.getId(),
+                firstSawBooking.getId(), foreignBooking.getId(), 999999L), false, owner.getId());
+
+        assertThat(result.getStatus(), equalTo(BookingStatus.REJECTED));
+        assertThat(result.getUpdated(), contains(firstSawBooking.getId(), drillBooking.getId()));
+        assertThat(result.getSkipped(), contains(foreignBooking.getId(), 999999L));
+        assertThat(bookingService.findByOwnerIdOrBookerId(firstSawBooking.getId(), owner.getId()).getStatus(),
+                equalTo(BookingStatus.REJECTED));
+        assertThat(bookingService.findByOwnerIdOrBookerId(foreignBooking.getId(), owner.getId()).getStatus(),
+                equalTo(BookingStatus.WAITING));
+
+        BookingApprovalResultDto repeated = bookingService.approveBookings(List.of(firstSawBooking.getId(),
+                secondSawBooking.getId()), true, owner.getId());
+
+        assertThat(repeated.getUpdated(), contains(secondSawBooking.getId()));
+        assertThat(repeated.getSkipped(), contains(firstSawBooking.getId()));
+        // Указатель предмета ссылается на подтвержденное бронирование
+        assertThat(((ItemDtoWithBookings) itemService.getItemById(saw.getId(), owner.getId())).getNextBooking().getId(),
+                equalTo(secondSawBooking.getId()));
+    }
+
+    @Test
+    void testSummarizeByBookerIdAndOwnerIdInOneStatement() {
+        UserDto owner = userService.createUser(UserDto.builder()
+                .name("Roland")
+                .email("roland@test.ru")
+                .build());
+        UserDto booker = userService.createUser(UserDto.builder()
+                .name("Voland")
+                .email("voland@test.ru")
+                .build());
+        ItemDto saw = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("Пила")
+                .description("Пилит")
+                .available(true)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto past = bookingService.add(newBooking(saw.getId(), now.minusDays(3), now.minusDays(2)), booker.getId());
+        bookingService.approveBooking(past.getId(), true, owner.getId());
+        bookingService.add(newBooking(saw.getId(), now.minusHours(1), now.plusHours(1)), booker.getId());
+        BookingDto rejected = bookingService.add(newBooking(saw.getId(), now.plusDays(1), now.plusDays(2)),
+                booker.getId());
+        bookingService.approveBooking(rejected.getId(), false, owner.getId());
+        bookingService.add(newBooking(saw.getId(), now.plusDays(3), now.plusDays(4)), booker.getId());
+        em.flush();
+        em.clear();
+        BookingSummaryDto expected = new BookingSummaryDto(4L, 1L, 1L, 2L, 2L, 1L, 0L);
+
+        assertThat(bookingService.summarizeByOwnerId(owner.getId()), equalTo(expected));
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(bookingService.summarizeByBookerId(booker.getId()), equalTo(expected));
+        // Проверка пользователя и один агрегирующий запрос на все состояния
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+        assertThat(bookingService.summarizeByOwnerId(booker.getId()),
+                equalTo(new BookingSummaryDto(0L, 0L, 0L, 0L, 0L, 0L, 0L)));
+    }
+
+    private static NewBookingDto newBooking(long itemId, LocalDateTime start, LocalDateTime end) {
+        return NewBookingDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .build();
+    }
 }
@@ -1,27 +1,37 @@
 package ru.practicum.shareit.booking;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.ItemPeriodView;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.exception.ObjectNotValidException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.UserIdIndex;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -36,6 +46,10 @@ public class BookingServiceImplUnitTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ItemBookingPointerService bookingPointerService;
+    @Mock
+    private EntityManager entityManager;
 
     private final Sort sort = Sort.by("start").descending();
 
@@ -66,7 +80,7 @@ public class BookingServiceImplUnitTest {
     @Test
     void testAddBookingItemNotFound() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
 
         NewBookingDto newBookingDto = NewBookingDto.builder()
                 .itemId(1L)
@@ -96,9 +110,9 @@ public class BookingServiceImplUnitTest {
     @Test
     void testAddBookingOwnerCantBookOwnItem() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
-        User owner = new User(2L, "Stan", "stan@test.ru");
-        Item item = new Item(null, owner, null, "Пила", "Пилит", true);
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(2L, "Stan", "stan@test.ru", null);
+        Item item = new Item(null, owner, null, "Пила", "Пилит", true, null);
 
         NewBookingDto newBookingDto = NewBookingDto.builder()
                 .itemId(1L)
@@ -128,9 +142,9 @@ public class BookingServiceImplUnitTest {
     @Test
     void testAddBookingItemNotAvailable() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
-        User owner = new User(1L, "Mike", "mike@test.ru");
-        Item item = new Item(null, owner, null, "Пила", "Пилит", false);
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(null, owner, null, "Пила", "Пилит", false, null);
 
         NewBookingDto newBookingDto = NewBookingDto.builder()
                 .itemId(1L)
@@ -160,10 +174,10 @@ public class BookingServiceImplUnitTest {
     @Test
     void testAddBookingItemWithCrossedPeriods() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
-        User owner = new User(1L, "Mike", "mike@test.ru");
-        Item item = new Item(null, owner, null, "Пила", "Пилит", true);
-        Booking notCrossedbooking = new Booking(1L, booker, item, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(6), BookingStatus.WAITING);
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(null, owner, null, "Пила", "Пилит", true, null);
+        Booking notCrossedbooking = new Booking(1L, booker, item, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(6), BookingStatus.WAITING, null);
         NewBookingDto newBookingDto = NewBookingDto.builder()
                 .itemId(1L)
                 .start(LocalDateTime.now().plusDays(2))
@@ -191,14 +205,195 @@ public class BookingServiceImplUnitTest {
                 .getItemById(1L);
     }
 
+    @Test
+    void testAddBookingItemInsideExistingPeriod() {
+        BookingService service = getBookingService();
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
+        Booking existing = new Booking(1L, booker, item, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(10), BookingStatus.APPROVED, null);
+        NewBookingDto newBookingDto = NewBookingDto.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().plusDays(2))
+                .end(LocalDateTime.now().plusDays(3))
+                .build();
+
+        Mockito
+                .when(userRepository.findById(2L))
+                .thenReturn(Optional.of(booker));
+        Mockito
+                .when(itemRepository.getItemById(1L))
+                .thenReturn(item);
+        Mockito
+                .when(bookingRepository.findByItemIdAndEndAfter(anyLong(), any()))
+                .thenReturn(List.of(existing));
+
+        final BadRequestException exception = Assertions.assertThrows(BadRequestException.class,
+                () -> service.add(newBookingDto, 2L));
+        assertThat(exception.getMessage(), equalTo("Имеются пересечения с периодами по существующим бронированиям"));
+        Mockito.verify(bookingRepository, Mockito.never())
+                .save(any());
+    }
+
+    @Test
+    void testAddBookingItemSamePeriodAsRejected() {
+        BookingService service = getBookingService();
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        LocalDateTime end = LocalDateTime.now().plusDays(3);
+        Booking rejected = new Booking(1L, booker, item, start, end, BookingStatus.REJECTED, null);
+        Booking booking = new Booking(2L, booker, item, start, end, BookingStatus.WAITING, null);
+        NewBookingDto newBookingDto = NewBookingDto.builder()
+                .itemId(1L)
+                .start(start)
+                .end(end)
+                .build();
+
+        Mockito
+                .when(userRepository.findById(2L))
+                .thenReturn(Optional.of(booker));
+        Mockito
+                .when(itemRepository.getItemById(1L))
+                .thenReturn(item);
+        Mockito
+                .when(bookingRepository.findByItemIdAndEndAfter(anyLong(), any()))
+                .thenReturn(List.of(rejected));
+        Mockito
+                .when(bookingRepository.save(any()))
+                .thenReturn(booking);
+
+        BookingDto bookingDto = service.add(newBookingDto, 2L);
+        assertThat(bookingDto.getId(), equalTo(2L));
+
+        final BadRequestException exception = Assertions.assertThrows(BadRequestException.class,
+                () -> service.add(newBookingDto, 2L));
+        assertThat(exception.getMessage(), equalTo("Имеются пересечения с периодами по существующим бронированиям"));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findByItemIdAndEndAfter(anyLong(), any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .save(any());
+    }
+
+    @Test
+    void testAddBookingConcurrentOverlapRejectedByDatabase() {
+        BookingService service = getBookingService();
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
+        NewBookingDto newBookingDto = NewBookingDto.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().plusDays(2))
+                .end(LocalDateTime.now().plusDays(3))
+                .build();
+
+        Mockito
+                .when(userRepository.findById(2L))
+                .thenReturn(Optional.of(booker));
+        Mockito
+                .when(itemRepository.getItemById(1L))
+                .thenReturn(item);
+        Mockito
+                .when(bookingRepository.findByItemIdAndEndAfter(anyLong(), any()))
+                .thenReturn(List.of());
+        Mockito
+                .when(bookingRepository.save(any()))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement", new SQLException(
+                        "ERROR: conflicting key value violates exclusion constraint \"ex_bookings_item_period\"",
+                        "23P01")));
+
+        final BadRequestException exception = Assertions.assertThrows(BadRequestException.class,
+                () -> service.add(newBookingDto, 2L));
+        assertThat(exception.getMessage(), equalTo("Имеются пересечения с периодами по существующим бронированиям"));
+    }
+
+    @Test
+    void testAddBookingLosesPeriodTakenAfterPreliminaryCheck() {
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, 1000, 600000, 60000);
+        BookingService service = new BookingServiceImpl(bookingRepository, userRepository,
+                new UserIdIndex(userRepository), itemRepository, index, new ItemAvailabilityIndex(bookingRepository, 1000, 60000),
+                bookingPointerService, entityManager);
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        LocalDateTime end = LocalDateTime.now().plusDays(3);
+        NewBookingDto newBookingDto = NewBookingDto.builder()
+                .itemId(1L)
+                .start(start)
+                .end(end)
+                .build();
+
+        Mockito
+                .when(userRepository.findById(2L))
+                .thenReturn(Optional.of(booker));
+        Mockito
+                .when(itemRepository.getItemById(1L))
+                .thenReturn(item);
+        Mockito
+                .when(bookingRepository.findByItemIdAndEndAfter(anyLong(), any()))
+                .thenReturn(List.of());
+        // Пока бронирование сохраняется, тот же период занимает параллельный запрос
+        Mockito
+                .when(bookingRepository.save(any()))
+                .thenAnswer(invocation -> {
+                    index.tryAdd(1L, new Booking(5L, booker, item, start, end, BookingStatus.WAITING, null));
+                    Booking booking = invocation.getArgument(0);
+                    booking.setId(6L);
+                    return booking;
+                });
+
+        final BadRequestException exception = Assertions.assertThrows(BadRequestException.class,
+                () -> service.add(newBookingDto, 2L));
+        assertThat(exception.getMessage(), equalTo("Имеются пересечения с периодами по существующим бронированиям"));
+        Mockito.verify(bookingRepository, Mockito.never())
+                .flush();
+    }
+
+    @Test
+    void testAddBookingOtherIntegrityViolationIsNotReportedAsOverlap() {
+        BookingService service = getBookingService();
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
+        NewBookingDto newBookingDto = NewBookingDto.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().plusDays(2))
+                .end(LocalDateTime.now().plusDays(3))
+                .build();
+        DataIntegrityViolationException foreignKeyViolation = new DataIntegrityViolationException(
+                "could not execute statement", new SQLException(
+                "ERROR: insert or update on table \"bookings\" violates foreign key constraint \"fk_bookings_to_items\"",
+                "23503"));
+
+        Mockito
+                .when(userRepository.findById(2L))
+                .thenReturn(Optional.of(booker));
+        Mockito
+                .when(itemRepository.getItemById(1L))
+                .thenReturn(item);
+        Mockito
+                .when(bookingRepository.findByItemIdAndEndAfter(anyLong(), any()))
+                .thenReturn(List.of());
+        Mockito
+                .when(bookingRepository.save(any()))
+                .thenThrow(foreignKeyViolation);
+
+        final DataIntegrityViolationException exception = Assertions.assertThrows(
+                DataIntegrityViolationException.class, () -> service.add(newBookingDto, 2L));
+        assertThat(exception, equalTo(foreignKeyViolation));
+    }
+
     @Test
     void testAddBookingItemOk() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
-        User owner = new User(1L, "Mike", "mike@test.ru");
-        Item item = new Item(null, owner, null, "Пила", "Пилит", true);
-        Booking booking = new Booking(1L, booker, item, LocalDateTime.now().plusDays(2), LocalDateTime.now().plusDays(3), BookingStatus.WAITING);
-        Booking notCrossedbooking = new Booking(1L, booker, item, LocalDateTime.now().plusDays(5), LocalDateTime.now().plusDays(6), BookingStatus.WAITING);
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
+        Booking booking = new Booking(1L, booker, item, LocalDateTime.now().plusDays(2), LocalDateTime.now().plusDays(3), BookingStatus.WAITING, null);
+        Booking notCrossedbooking = new Booking(1L, booker, item, LocalDateTime.now().plusDays(5), LocalDateTime.now().plusDays(6), BookingStatus.WAITING, null);
         NewBookingDto newBookingDto = NewBookingDto.builder()
                 .itemId(1L)
                 .start(LocalDateTime.now().plusDays(2))
@@ -250,9 +445,9 @@ public class BookingServiceImplUnitTest {
     @Test
     void testApproveBookingOwnerEqualBooker() {
         BookingService service = getBookingService();
-        User booker = new User(1L, "Mike", "mike@test.ru");
-        User owner = new User(1L, "Mike", "mike@test.ru");
-        Item item = new Item(null, owner, null, "Пила", "Пилит", false);
+        User booker = new User(1L, "Mike", "mike@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(null, owner, null, "Пила", "Пилит", false, null);
         Booking booking = Booking.builder()
                 .id(1L)
                 .booker(booker)
@@ -279,9 +474,9 @@ public class BookingServiceImplUnitTest {
     @Test
     void testApproveBookingStatusNotWaiting() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
-        User owner = new User(1L, "Mike", "mike@test.ru");
-        Item item = new Item(null, owner, null, "Пила", "Пилит", false);
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(null, owner, null, "Пила", "Пилит", false, null);
         Booking booking = Booking.builder()
                 .id(1L)
                 .booker(booker)
@@ -308,9 +503,9 @@ public class BookingServiceImplUnitTest {
     @Test
     void testApproveBookingOk() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
-        User owner = new User(1L, "Mike", "mike@test.ru");
-        Item item = new Item(null, owner, null, "Пила", "Пилит", false);
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", false, null);
         Booking booking = Booking.builder()
                 .id(1L)
                 .booker(booker)
@@ -349,35 +544,34 @@ public class BookingServiceImplUnitTest {
     void testFindAllByBookerIdAndBookingStateUserNotFound() {
         BookingService service = getBookingService();
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.empty());
+                .when(userRepository.existsById(1L))
+                .thenReturn(false);
 
         final ObjectNotFoundException exception = Assertions.assertThrows(ObjectNotFoundException.class,
-                () -> service.findAllByBookerIdAndBookingState(1L, BookingState.ALL, -1, 0));
+                () -> service.findTaggedByBookerIdAndBookingState(1L, BookingState.ALL, -1, 0).getBody());
 
         assertThat(exception.getMessage(), equalTo("Объект не найден"));
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verifyNoInteractions(bookingRepository);
     }
 
     @Test
     void testFindAllByBookerIdAndBookingStateWithStateAll() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
 
         Mockito
-                .when(userRepository.findById(2L))
-                .thenReturn(Optional.of(booker));
+                .when(userRepository.existsById(2L))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.findAllByBookerId(anyLong(), any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(Mockito.anyList()));
 
-        service.findAllByBookerIdAndBookingState(2L, BookingState.ALL, 0, 5);
+        service.findTaggedByBookerIdAndBookingState(2L, BookingState.ALL, 0, 5).getBody();
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(2L);
+                .existsById(2L);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllByBookerId(anyLong(), any(PageRequest.class));
         Mockito.verifyNoMoreInteractions(bookingRepository);
@@ -386,20 +580,19 @@ public class BookingServiceImplUnitTest {
     @Test
     void testFindAllByBookerIdAndBookingStateWithStateCurrent() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
 
         Mockito
-                .when(userRepository.findById(2L))
-                .thenReturn(Optional.of(booker));
+                .when(userRepository.existsById(2L))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.findAllBookerCurrentBookings(anyLong(),
                         any(LocalDateTime.class), any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(Mockito.anyList()));
 
-        service.findAllByBookerIdAndBookingState(2L, BookingState.CURRENT, 0, 5);
+        service.findTaggedByBookerIdAndBookingState(2L, BookingState.CURRENT, 0, 5).getBody();
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(2L);
+                .existsById(2L);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllBookerCurrentBookings(anyLong(), any(LocalDateTime.class), any(PageRequest.class));
         Mockito.verifyNoMoreInteractions(bookingRepository);
@@ -408,20 +601,19 @@ public class BookingServiceImplUnitTest {
     @Test
     void testFindAllByBookerIdAndBookingStateWithStatePast() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
 
         Mockito
-                .when(userRepository.findById(2L))
-                .thenReturn(Optional.of(booker));
+                .when(userRepository.existsById(2L))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.findAllByBookerIdAndEndBefore(anyLong(),
                         any(LocalDateTime.class), any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(Mockito.anyList()));
 
-        service.findAllByBookerIdAndBookingState(2L, BookingState.PAST, 0, 5);
+        service.findTaggedByBookerIdAndBookingState(2L, BookingState.PAST, 0, 5).getBody();
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(2L);
+                .existsById(2L);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllByBookerIdAndEndBefore(anyLong(), any(LocalDateTime.class), any(PageRequest.class));
         Mockito.verifyNoMoreInteractions(bookingRepository);
@@ -430,20 +622,19 @@ public class BookingServiceImplUnitTest {
     @Test
     void testFindAllByBookerIdAndBookingStateWithStateFuture() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
 
         Mockito
-                .when(userRepository.findById(2L))
-                .thenReturn(Optional.of(booker));
+                .when(userRepository.existsById(2L))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.findAllByBookerIdAndStartAfter(anyLong(),
                         any(LocalDateTime.class), any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(Mockito.anyList()));
 
-        service.findAllByBookerIdAndBookingState(2L, BookingState.FUTURE, 0, 5);
+        service.findTaggedByBookerIdAndBookingState(2L, BookingState.FUTURE, 0, 5).getBody();
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(2L);
+                .existsById(2L);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllByBookerIdAndStartAfter(anyLong(), any(LocalDateTime.class), any(PageRequest.class));
         Mockito.verifyNoMoreInteractions(bookingRepository);
@@ -452,19 +643,18 @@ public class BookingServiceImplUnitTest {
     @Test
     void testFindAllByBookerIdAndBookingStateWithStateWaiting() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
         Mockito
-                .when(userRepository.findById(2L))
-                .thenReturn(Optional.of(booker));
+                .when(userRepository.existsById(2L))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.findAllByBookerIdAndStatus(2L,
                         BookingStatus.WAITING, PageRequest.of(0, 5, sort)))
                 .thenReturn(new PageImpl<>(Mockito.anyList()));
 
-        service.findAllByBookerIdAndBookingState(2L, BookingState.WAITING, 0, 5);
+        service.findTaggedByBookerIdAndBookingState(2L, BookingState.WAITING, 0, 5).getBody();
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(2L);
+                .existsById(2L);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllByBookerIdAndStatus(2L,
                         BookingStatus.WAITING, PageRequest.of(0, 5, sort));
@@ -474,9 +664,9 @@ public class BookingServiceImplUnitTest {
     @Test
     void testFindAllByBookerIdAndBookingStateWithStateRejected() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
-        User owner = new User(1L, "Mike", "mike@test.ru");
-        Item item = new Item(null, owner, null, "Пила", "Пилит", false);
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(null, owner, null, "Пила", "Пилит", false, null);
         Booking booking = Booking.builder()
                 .id(1L)
                 .booker(booker)
@@ -486,17 +676,17 @@ public class BookingServiceImplUnitTest {
                 .end(LocalDateTime.now().plusDays(3))
                 .build();
         Mockito
-                .when(userRepository.findById(2L))
-                .thenReturn(Optional.of(booker));
+                .when(userRepository.existsById(2L))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.findAllByBookerIdAndStatus(2L,
                         BookingStatus.REJECTED, PageRequest.of(0, 5, sort)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
-        service.findAllByBookerIdAndBookingState(2L, BookingState.REJECTED, 0, 5);
+        service.findTaggedByBookerIdAndBookingState(2L, BookingState.REJECTED, 0, 5).getBody();
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(2L);
+                .existsById(2L);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllByBookerIdAndStatus(2L,
                         BookingStatus.REJECTED, PageRequest.of(0, 5, sort));
@@ -508,35 +698,34 @@ public class BookingServiceImplUnitTest {
     void testFindAllByOwnerIdAndBookingStateUserNotFound() {
         BookingService service = getBookingService();
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.empty());
+                .when(userRepository.existsById(1L))
+                .thenReturn(false);
 
         final ObjectNotFoundException exception = Assertions.assertThrows(ObjectNotFoundException.class,
-                () -> service.findAllByOwnerIdAndBookingState(1L, BookingState.ALL, -1, 0));
+                () -> service.findTaggedByOwnerIdAndBookingState(1L, BookingState.ALL, -1, 0).getBody());
 
         assertThat(exception.getMessage(), equalTo("Объект не найден"));
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verifyNoInteractions(bookingRepository);
     }
 
     @Test
     void testFindAllByOwnerIdAndBookingStateWithStateAll() {
         BookingService service = getBookingService();
-        User owner = new User(1L, "Mike", "mike@test.ru");
 
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.of(owner));
+                .when(userRepository.existsById(1L))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.findAllByItemOwnerId(anyLong(), any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(Mockito.anyList()));
 
-        service.findAllByOwnerIdAndBookingState(1L, BookingState.ALL, 0, 5);
+        service.findTaggedByOwnerIdAndBookingState(1L, BookingState.ALL, 0, 5).getBody();
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllByItemOwnerId(anyLong(), any(PageRequest.class));
         Mockito.verifyNoMoreInteractions(bookingRepository);
@@ -545,20 +734,19 @@ public class BookingServiceImplUnitTest {
     @Test
     void testFindAllByOwnerIdAndBookingStateWithStateCurrent() {
         BookingService service = getBookingService();
-        User owner = new User(1L, "Mike", "mike@test.ru");
 
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.of(owner));
+                .when(userRepository.existsById(1L))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.findAllOwnerCurrentBookings(anyLong(),
                         any(LocalDateTime.class), any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(Mockito.anyList()));
 
-        service.findAllByOwnerIdAndBookingState(1L, BookingState.CURRENT, 0, 5);
+        service.findTaggedByOwnerIdAndBookingState(1L, BookingState.CURRENT, 0, 5).getBody();
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllOwnerCurrentBookings(anyLong(), any(LocalDateTime.class), any(PageRequest.class));
         Mockito.verifyNoMoreInteractions(bookingRepository);
@@ -567,20 +755,19 @@ public class BookingServiceImplUnitTest {
     @Test
     void testFindAllByOwnerIdAndBookingStateWithStatePast() {
         BookingService service = getBookingService();
-        User owner = new User(1L, "Mike", "mike@test.ru");
 
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.of(owner));
+                .when(userRepository.existsById(1L))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.findAllByItemOwnerIdAndEndBefore(anyLong(),
                         any(LocalDateTime.class), any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(Mockito.anyList()));
 
-        service.findAllByOwnerIdAndBookingState(1L, BookingState.PAST, 0, 5);
+        service.findTaggedByOwnerIdAndBookingState(1L, BookingState.PAST, 0, 5).getBody();
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllByItemOwnerIdAndEndBefore(anyLong(), any(LocalDateTime.class), any(PageRequest.class));
         Mockito.verifyNoMoreInteractions(bookingRepository);
@@ -589,20 +776,19 @@ public class BookingServiceImplUnitTest {
     @Test
     void testFindAllByOwnerIdAndBookingStateWithStateFuture() {
         BookingService service = getBookingService();
-        User owner = new User(1L, "Mike", "mike@test.ru");
 
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.of(owner));
+                .when(userRepository.existsById(1L))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.findAllByItemOwnerIdAndStartAfter(anyLong(),
                         any(LocalDateTime.class), any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(Mockito.anyList()));
 
-        service.findAllByOwnerIdAndBookingState(1L, BookingState.FUTURE, 0, 5);
+        service.findTaggedByOwnerIdAndBookingState(1L, BookingState.FUTURE, 0, 5).getBody();
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllByItemOwnerIdAndStartAfter(anyLong(), any(LocalDateTime.class), any(PageRequest.class));
         Mockito.verifyNoMoreInteractions(bookingRepository);
@@ -611,19 +797,18 @@ public class BookingServiceImplUnitTest {
     @Test
     void testFindAllByOwnerIdAndBookingStateWithStateWaiting() {
         BookingService service = getBookingService();
-        User owner = new User(1L, "Mike", "mike@test.ru");
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.of(owner));
+                .when(userRepository.existsById(1L))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.findAllByItemOwnerIdAndStatus(1L,
                         BookingStatus.WAITING, PageRequest.of(0, 5, sort)))
                 .thenReturn(new PageImpl<>(Mockito.anyList()));
 
-        service.findAllByOwnerIdAndBookingState(1L, BookingState.WAITING, 0, 5);
+        service.findTaggedByOwnerIdAndBookingState(1L, BookingState.WAITING, 0, 5).getBody();
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllByItemOwnerIdAndStatus(1L,
                         BookingStatus.WAITING, PageRequest.of(0, 5, sort));
@@ -633,9 +818,9 @@ public class BookingServiceImplUnitTest {
     @Test
     void testFindAllByOwnerIdAndBookingStateWithStateRejected() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
-        User owner = new User(1L, "Mike", "mike@test.ru");
-        Item item = new Item(null, owner, null, "Пила", "Пилит", false);
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(null, owner, null, "Пила", "Пилит", false, null);
         Booking booking = Booking.builder()
                 .id(1L)
                 .booker(booker)
@@ -645,23 +830,133 @@ public class BookingServiceImplUnitTest {
                 .end(LocalDateTime.now().plusDays(3))
                 .build();
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.of(owner));
+                .when(userRepository.existsById(1L))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.findAllByItemOwnerIdAndStatus(1L,
                         BookingStatus.REJECTED, PageRequest.of(0, 5, sort)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
-        service.findAllByOwnerIdAndBookingState(1L, BookingState.REJECTED, 0, 5);
+        service.findTaggedByOwnerIdAndBookingState(1L, BookingState.REJECTED, 0, 5).getBody();
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllByItemOwnerIdAndStatus(1L,
                         BookingStatus.REJECTED, PageRequest.of(0, 5, sort));
         Mockito.verifyNoMoreInteractions(bookingRepository);
     }
 
+    @Test
+    void testAddAllInsertsAcceptedEntriesWithOneFlush() {
+        BookingService service = getBookingService();
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item saw = new Item(1L, owner, null, "Пила", "Пилит", true, null);
+        Item drill = new Item(3L, owner, null, "Дрель", "Сверлит", true, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        AtomicLong ids = new AtomicLong();
+        Session session = Mockito.mock(Session.class);
+
+        Mockito
+                .when(userRepository.findById(2L))
+                .thenReturn(Optional.of(booker));
+        Mockito
+                .when(itemRepository.findAllById(Set.of(1L, 3L)))
+                .thenReturn(List.of(saw, drill));
+        Mockito
+                .when(bookingRepository.findByItemIdInAndEndAfter(any(), any()))
+                .thenReturn(List.of());
+        // Дрель уже занята в базе на третий день
+        Mockito
+                .when(bookingRepository.findPeriodsByItemIdIn(Set.of(1L, 3L), BookingStatus.RELEASED, start,
+                        start.plusDays(4)))
+                .thenReturn(List.of(new ItemPeriodView(3L, start.plusDays(2), start.plusDays(3))));
+        Mockito
+                .when(entityManager.unwrap(Session.class))
+                .thenReturn(session);
+        Mockito
+                .when(bookingRepository.save(any()))
+                .thenAnswer(invocation -> {
+                    Booking booking = invocation.getArgument(0);
+                    booking.setId(ids.incrementAndGet());
+                    return booking;
+                });
+
+        List<BookingBatchResultDto> results = service.addAll(List.of(
+                NewBookingDto.builder().itemId(1L).start(start).end(start.plusDays(1)).build(),
+                NewBookingDto.builder().itemId(1L).start(start.plusHours(12)).end(start.plusDays(2)).build(),
+                NewBookingDto.builder().itemId(3L).start(start.plusDays(2)).end(start.plusDays(4)).build(),
+                NewBookingDto.builder().itemId(3L).start(start).end(start.plusDays(2)).build()), 2L);
+
+        assertThat(results.get(0).getBooking().getId(), equalTo(1L));
+        assertThat(results.get(1).getError(), equalTo("Имеются пересечения с периодами по существующим бронированиям"));
+        assertThat(results.get(2).getError(), equalTo("Имеются пересечения с периодами по существующим бронированиям"));
+        assertThat(results.get(3).getBooking().getId(), equalTo(2L));
+        // Одна точка сохранения и один flush на весь пакет
+        Mockito.verify(session, Mockito.times(1)).doReturningWork(any());
+        Mockito.verify(bookingRepository, Mockito.times(1)).flush();
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findPeriodsByItemIdIn(any(), any(), any(), any());
+    }
+
+    @Test
+    void testAddAllKeepsOtherEntriesWhenDatabaseRejectsOne() {
+        BookingService service = getBookingService();
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        AtomicLong ids = new AtomicLong();
+        Session session = Mockito.mock(Session.class);
+
+        Mockito
+                .when(userRepository.findById(2L))
+                .thenReturn(Optional.of(booker));
+        Mockito
+                .when(itemRepository.findAllById(Set.of(1L)))
+                .thenReturn(List.of(item));
+        Mockito
+                .when(bookingRepository.findByItemIdInAndEndAfter(any(), any()))
+                .thenReturn(List.of());
+        Mockito
+                .when(entityManager.unwrap(Session.class))
+                .thenReturn(session);
+        Mockito
+                .when(bookingRepository.save(any()))
+                .thenAnswer(invocation -> {
+                    Booking booking = invocation.getArgument(0);
+                    booking.setId(ids.incrementAndGet());
+                    return booking;
+                });
+        // Период второй позиции занят параллельным бронированием: ограничение базы отклоняет весь пакет,
+        // а при вставке по одной - только эту позицию
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("could not execute batch",
+                new SQLException("ERROR: conflicting key value violates exclusion constraint \"ex_bookings_item_period\"",
+                        "23P01"));
+        Mockito
+                .doThrow(violation)
+                .doNothing()
+                .doThrow(violation)
+                .doNothing()
+                .when(bookingRepository).flush();
+
+        List<BookingBatchResultDto> results = service.addAll(List.of(
+                NewBookingDto.builder().itemId(1L).start(start).end(start.plusDays(1)).build(),
+                NewBookingDto.builder().itemId(1L).start(start.plusDays(2)).end(start.plusDays(3)).build(),
+                NewBookingDto.builder().itemId(1L).start(start.plusDays(4)).end(start.plusDays(5)).build()), 2L);
+
+        // Бронирования откаченного пакета не переиспользуются: при вставке по одной создаются заново
+        assertThat(results.get(0).getBooking().getId(), equalTo(4L));
+        assertThat(results.get(1).getError(), equalTo("Имеются пересечения с периодами по существующим бронированиям"));
+        assertThat(results.get(2).getBooking().getId(), equalTo(6L));
+        Mockito.verify(entityManager, Mockito.times(4)).detach(any());
+        Mockito.verify(entityManager, Mockito.times(1))
+                .detach(Mockito.argThat(booking -> ((Booking) booking).getId() == 5L));
+        // Указатели следят только за подтвержденными бронированиями
+        Mockito.verifyNoInteractions(bookingPointerService);
+    }
+
     @Test
     void testFindByOwnerIdOrBookerIdBookingNotFound() {
         BookingService service = getBookingService();
@@ -684,9 +979,9 @@ public class BookingServiceImplUnitTest {
     @Test
     void testFindByOwnerIdOrBookerIdOk() {
         BookingService service = getBookingService();
-        User booker = new User(2L, "Stan", "stan@test.ru");
-        User owner = new User(1L, "Mike", "mike@test.ru");
-        Item item = new Item(null, owner, null, "Пила", "Пилит", false);
+        User booker = new User(2L, "Stan", "stan@test.ru", null);
+        User owner = new User(1L, "Mike", "mike@test.ru", null);
+        Item item = new Item(null, owner, null, "Пила", "Пилит", false, null);
         Booking booking = Booking.builder()
                 .id(1L)
                 .booker(booker)
@@ -710,6 +1005,8 @@ public class BookingServiceImplUnitTest {
     }
 
     private BookingService getBookingService() {
-        return new BookingServiceImpl(bookingRepository, userRepository, itemRepository);
+        return new BookingServiceImpl(bookingRepository, userRepository, new UserIdIndex(userRepository), itemRepository,
+                new BookingIntervalIndex(bookingRepository, 1000, 600000, 60000),
+                new ItemAvailabilityIndex(bookingRepository, 1000, 60000), bookingPointerService, entityManager);
     }
 }
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.shareit.booking.dto.PeriodDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemAvailabilityIndexUnitTest {
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private ItemAvailabilityIndex index;
+    private final LocalDateTime day = LocalDate.now().plusDays(2).atStartOfDay();
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemAvailabilityIndex(bookingRepository, 1000, 60000, nanos::get);
+    }
+
+    @Test
+    void testBusyHoursAreRoundedOutwardAndMerged() {
+        Mockito
+                .when(bookingRepository.findPeriodsByItemId(eq(1L), eq(BookingStatus.RELEASED), any(), any()))
+                .thenReturn(List.of(
+                        new PeriodDto(day.plusHours(10).plusMinutes(30), day.plusHours(11).plusMinutes(15)),
+                        new PeriodDto(day.plusHours(12), day.plusHours(14)),
+                        new PeriodDto(day.plusHours(20), day.plusHours(22))));
+
+        assertThat(index.findBusyPeriods(1L, day, day.plusDays(1)), equalTo(Optional.of(List.of(
+                new PeriodDto(day.plusHours(10), day.plusHours(14)),
+                new PeriodDto(day.plusHours(20), day.plusHours(22))))));
+        // Границы интервала обрезают занятые часы
+        assertThat(index.findBusyPeriods(1L, day.plusHours(13).plusMinutes(30), day.plusHours(21)),
+                equalTo(Optional.of(List.of(
+                        new PeriodDto(day.plusHours(13).plusMinutes(30), day.plusHours(14)),
+                        new PeriodDto(day.plusHours(20), day.plusHours(21))))));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findPeriodsByItemId(eq(1L), eq(BookingStatus.RELEASED), any(), any());
+    }
+
+    @Test
+    void testIntervalBeyondMapIsNotAnswered() {
+        LocalDateTime far = LocalDate.now().plusDays(ItemAvailabilityIndex.COVERED_DAYS).atStartOfDay();
+
+        assertThat(index.findBusyPeriods(1L, far.minusDays(1), far.plusDays(1)), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void testOccupyIsAppliedAfterCommit() {
+        assertThat(index.findBusyPeriods(1L, day, day.plusDays(1)).orElseThrow(), empty());
+        Booking booking = booking(day.plusHours(9), day.plusHours(10));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.occupy(List.of(booking));
+            assertThat(index.findBusyPeriods(1L, day, day.plusDays(1)).orElseThrow(), empty());
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(index.findBusyPeriods(1L, day, day.plusDays(1)).orElseThrow(),
+                contains(new PeriodDto(day.plusHours(9), day.plusHours(10))));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findPeriodsByItemId(eq(1L), eq(BookingStatus.RELEASED), any(), any());
+    }
+
+    @Test
+    void testReleaseReloadsItemFromDatabase() {
+        Booking booking = booking(day.plusHours(9), day.plusHours(10));
+        Mockito
+                .when(bookingRepository.findPeriodsByItemId(eq(1L), eq(BookingStatus.RELEASED), any(), any()))
+                .thenReturn(List.of(new PeriodDto(booking.getStart(), booking.getEnd())))
+                .thenReturn(List.of());
+        assertThat(index.findBusyPeriods(1L, day, day.plusDays(1)).orElseThrow(),
+                contains(new PeriodDto(day.plusHours(9), day.plusHours(10))));
+
+        index.release(List.of(booking));
+
+        assertThat(index.findBusyPeriods(1L, day, day.plusDays(1)).orElseThrow(), empty());
+    }
+
+    @Test
+    void testReloadsItemAfterReloadDelay() {
+        Mockito
+                .when(bookingRepository.findPeriodsByItemId(eq(1L), eq(BookingStatus.RELEASED), any(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new PeriodDto(day.plusHours(9), day.plusHours(10))));
+        assertThat(index.findBusyPeriods(1L, day, day.plusDays(1)).orElseThrow(), empty());
+
+        // Бронирование создано через другой экземпляр; отметки этого экземпляра срок не продлевают
+        index.occupy(List.of(booking(day.plusHours(1), day.plusHours(2))));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        assertThat(index.findBusyPeriods(1L, day, day.plusDays(1)).orElseThrow(),
+                contains(new PeriodDto(day.plusHours(9), day.plusHours(10))));
+    }
+
+    private static Booking booking(LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .item(new Item(1L, null, null, "Пила", "Пилит", true, null))
+                .start(start)
+                .end(end)
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.NewBookingDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoWithBookings;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+@Transactional
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemBookingPointerServiceIntegrationTest {
+    private final EntityManager em;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemBookingPointerService pointerService;
+
+    @Test
+    void testPointersFollowApprovedBookingsOnly() {
+        UserDto owner = userService.createUser(UserDto.builder().name("Roland").email("roland@test.ru").build());
+        UserDto booker = userService.createUser(UserDto.builder().name("Voland").email("voland@test.ru").build());
+        ItemDto item = itemService.addItem(owner.getId(),
+                ItemDto.builder().name("Пила").description("Пилит").available(true).build());
+
+        BookingDto later = bookingService.add(NewBookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(5))
+                .end(LocalDateTime.now().plusDays(6))
+                .build(), booker.getId());
+        BookingDto earlier = bookingService.add(NewBookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(2))
+                .end(LocalDateTime.now().plusDays(3))
+                .build(), booker.getId());
+
+        ItemDtoWithBookings itemDto = (ItemDtoWithBookings) itemService.getItemById(item.getId(), owner.getId());
+        assertThat(itemDto.getLastBooking(), nullValue());
+        assertThat(itemDto.getNextBooking(), nullValue());
+
+        bookingService.approveBooking(later.getId(), true, owner.getId());
+
+        itemDto = (ItemDtoWithBookings) itemService.getItemById(item.getId(), owner.getId());
+        assertThat(itemDto.getNextBooking().getId(), equalTo(later.getId()));
+
+        bookingService.approveBookings(List.of(earlier.getId()), true, owner.getId());
+
+        itemDto = (ItemDtoWithBookings) itemService.getItemById(item.getId(), owner.getId());
+        assertThat(itemDto.getNextBooking().getId(), equalTo(earlier.getId()));
+    }
+
+    @Test
+    void testApproveCreatesMissingPointerRow() {
+        UserDto owner = userService.createUser(UserDto.builder().name("Roland").email("roland@test.ru").build());
+        UserDto booker = userService.createUser(UserDto.builder().name("Voland").email("voland@test.ru").build());
+        ItemDto item = itemService.addItem(owner.getId(),
+                ItemDto.builder().name("Пила").description("Пилит").available(true).build());
+        BookingDto booking = bookingService.add(NewBookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(2))
+                .end(LocalDateTime.now().plusDays(3))
+                .build(), booker.getId());
+        em.remove(em.find(ItemBookingPointer.class, item.getId()));
+        em.flush();
+
+        bookingService.approveBooking(booking.getId(), true, owner.getId());
+        em.flush();
+        em.clear();
+
+        ItemBookingPointer pointer = em.find(ItemBookingPointer.class, item.getId());
+        assertThat(pointer.getNextBooking().getId(), equalTo(booking.getId()));
+    }
+
+    @Test
+    void testRollForwardMovesStartedBookingToLast() {
+        UserDto owner = userService.createUser(UserDto.builder().name("Roland").email("roland@test.ru").build());
+        UserDto booker = userService.createUser(UserDto.builder().name("Voland").email("voland@test.ru").build());
+        ItemDto item = itemService.addItem(owner.getId(),
+                ItemDto.builder().name("Пила").description("Пилит").available(true).build());
+        BookingDto booking = bookingService.add(NewBookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(2))
+                .end(LocalDateTime.now().plusDays(3))
+                .build(), booker.getId());
+        bookingService.approveBooking(booking.getId(), true, owner.getId());
+
+        // Бронирование началось, а указатель еще считает его будущим
+        LocalDateTime started = LocalDateTime.now().minusHours(1);
+        em.find(Booking.class, booking.getId()).setStart(started);
+        em.find(ItemBookingPointer.class, item.getId()).setNextStart(started);
+        em.flush();
+
+        ItemDtoWithBookings itemDto = (ItemDtoWithBookings) itemService.getItemById(item.getId(), owner.getId());
+        assertThat(itemDto.getLastBooking().getId(), equalTo(booking.getId()));
+        assertThat(itemDto.getNextBooking(), nullValue());
+
+        pointerService.rollForward();
+        em.flush();
+        em.clear();
+
+        ItemBookingPointer pointer = em.find(ItemBookingPointer.class, item.getId());
+        assertThat(pointer.getLastBooking().getId(), equalTo(booking.getId()));
+        assertThat(pointer.getNextBooking(), nullValue());
+        assertThat(pointer.getNextStart(), nullValue());
+    }
+}
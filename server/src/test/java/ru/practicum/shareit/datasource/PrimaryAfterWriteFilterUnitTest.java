@@ -0,0 +1,60 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class PrimaryAfterWriteFilterUnitTest {
+    private static final Instant NOW = Instant.parse("2030-01-01T00:00:00Z");
+
+    private final Clock clock = Mockito.mock(Clock.class);
+    private final PrimaryAfterWriteFilter filter = new PrimaryAfterWriteFilter(Duration.ofSeconds(10), clock);
+
+    @Test
+    void testReadsOfWriterGoToPrimaryWithinWindow() throws Exception {
+        Mockito
+                .when(clock.instant())
+                .thenReturn(NOW, NOW.plusSeconds(5), NOW.plusSeconds(11));
+        filter.doFilter(request("PATCH", "1"), new MockHttpServletResponse(), (request, response) -> {
+        });
+
+        assertThat(forcedDuring(request("GET", "1")), equalTo(true));
+        assertThat(forcedDuring(request("GET", "2")), equalTo(false));
+        assertThat(forcedDuring(request("GET", "1")), equalTo(false));
+        assertThat(PrimaryRouting.isForced(), equalTo(false));
+    }
+
+    @Test
+    void testReadPrimaryHeader() throws Exception {
+        MockHttpServletRequest request = request("GET", null);
+        request.addHeader(PrimaryAfterWriteFilter.READ_PRIMARY_HEADER, "true");
+
+        assertThat(forcedDuring(request), equalTo(true));
+        assertThat(PrimaryRouting.isForced(), equalTo(false));
+    }
+
+    private boolean forcedDuring(MockHttpServletRequest request) throws Exception {
+        AtomicBoolean forced = new AtomicBoolean();
+        FilterChain chain = (req, res) -> forced.set(PrimaryRouting.isForced());
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return forced.get();
+    }
+
+    private static MockHttpServletRequest request(String method, String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/items");
+        if (userId != null) {
+            request.addHeader("X-Sharer-User-Id", userId);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.PostgresContainerTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+// Запрос отставания по умолчанию на настоящем PostgreSQL. Контейнер не реплика:
+// функции WAL возвращают null, и запрос должен отдать null, а не ошибку
+public class ReplicaLagMonitorIntegrationTest extends PostgresContainerTest {
+
+    @Test
+    void testDefaultLagQueryRunsOnPostgres() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(),
+                POSTGRES.getUsername(), POSTGRES.getPassword());
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(dataSource, new ReplicaDataSourceProperties());
+
+        monitor.check();
+
+        assertThat(monitor.getLagSeconds(), equalTo(0.0));
+        assertThat(monitor.isReplicaUsable(), equalTo(true));
+    }
+}
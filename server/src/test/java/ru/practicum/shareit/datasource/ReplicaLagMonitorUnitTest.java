@@ -0,0 +1,53 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ReplicaLagMonitorUnitTest {
+    private final DriverManagerDataSource replica =
+            new DriverManagerDataSource("jdbc:h2:mem:lag-monitor", "test", "test");
+
+    @Test
+    void testReplicaUsableWithinMaxLag() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, properties("select 2"));
+
+        monitor.check();
+
+        assertThat(monitor.isReplicaUsable(), equalTo(true));
+        assertThat(monitor.getLagSeconds(), equalTo(2.0));
+    }
+
+    @Test
+    void testReplicaExcludedWhenLagging() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, properties("select 2"));
+        monitor.check();
+
+        ReplicaLagMonitor lagging = new ReplicaLagMonitor(replica, properties("select 30"));
+        lagging.check();
+
+        assertThat(monitor.isReplicaUsable(), equalTo(true));
+        assertThat(lagging.isReplicaUsable(), equalTo(false));
+    }
+
+    @Test
+    void testReplicaExcludedWhenLagUnknown() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, properties("select lag from missing_table"));
+
+        monitor.check();
+
+        assertThat(monitor.isReplicaUsable(), equalTo(false));
+        assertThat(Double.isNaN(monitor.getLagSeconds()), equalTo(true));
+    }
+
+    private static ReplicaDataSourceProperties properties(String lagQuery) {
+        ReplicaDataSourceProperties properties = new ReplicaDataSourceProperties();
+        properties.setLagQuery(lagQuery);
+        properties.setMaxLag(Duration.ofSeconds(5));
+        return properties;
+    }
+}
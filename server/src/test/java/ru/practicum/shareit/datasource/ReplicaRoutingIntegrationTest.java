@@ -0,0 +1,60 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+// Две базы H2 без репликации: пользователь, сохраненный в основной, на реплике не виден
+@SpringBootTest(
+        properties = {
+                "db.name=test",
+                "shareit.datasource.replica.url=" + ReplicaRoutingIntegrationTest.REPLICA_URL,
+                "shareit.datasource.replica.lag-query=select 0"
+        },
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ReplicaRoutingIntegrationTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:shareit-replica;DB_CLOSE_DELAY=-1";
+
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "test", "test")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToReplica() {
+        User user = userRepository.save(User.builder()
+                .name("Roland")
+                .email("roland.replica@test.ru")
+                .build());
+        try {
+            TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+
+            assertThat(readWrite.execute(status -> userRepository.findAllIds().contains(user.getId())), equalTo(true));
+            assertThat(readOnly.execute(status -> userRepository.findAllIds().contains(user.getId())), equalTo(false));
+            assertThat(readOnly.execute(status -> PrimaryRouting.call(() -> userRepository.existsById(user.getId()))),
+                    equalTo(true));
+        } finally {
+            userRepository.deleteById(user.getId());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.IndexedItemSearchEngine;
+import ru.practicum.shareit.item.search.SqlItemSearchEngine;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(MockitoExtension.class)
+public class IndexedItemSearchEngineUnitTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private SqlItemSearchEngine fallback;
+
+    @Test
+    void testSearchGoesToFallbackUntilIndexIsBuilt() {
+        IndexedItemSearchEngine engine = new IndexedItemSearchEngine(itemRepository, fallback);
+        Item item = item(1L, "Дрель", 0L);
+        Mockito
+                .when(fallback.search("дрель", 0, 10))
+                .thenReturn(List.of(item));
+
+        assertThat(engine.search("дрель", 0, 10), contains(item));
+        Mockito.verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void testItemSavedDuringBuildIsNotOverwrittenByStalePage() {
+        IndexedItemSearchEngine engine = new IndexedItemSearchEngine(itemRepository, fallback);
+        Item updated = item(1L, "Пила", 1L);
+        // Страница прочитана до фиксации изменения, а изменение применено раньше, чем страница попала в индекс
+        Mockito
+                .when(itemRepository.findAllBy(any()))
+                .thenAnswer(invocation -> {
+                    engine.onItemSaved(updated);
+                    return new PageImpl<>(List.of(item(1L, "Дрель", 0L)));
+                });
+        Mockito
+                .when(itemRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(updated));
+
+        engine.buildIndex();
+
+        assertThat(engine.search("пила", 0, 10), contains(updated));
+        assertThat(engine.search("дрель", 0, 10), empty());
+        Mockito.verifyNoInteractions(fallback);
+    }
+
+    private static Item item(long id, String name, long version) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(name)
+                .available(true)
+                .version(version)
+                .build();
+    }
+}
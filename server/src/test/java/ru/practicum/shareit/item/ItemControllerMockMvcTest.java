@@ -6,10 +6,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.PeriodDto;
 import ru.practicum.shareit.item.comments.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.util.Tagged;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -20,6 +26,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -100,6 +107,22 @@ public class ItemControllerMockMvcTest {
                 .andExpect(jsonPath("$.available", is(itemDto.getAvailable()), Boolean.class));
     }
 
+    @Test
+    void testUpdateItemConflict() throws Exception {
+        when(itemService.updateItem(anyLong(), anyLong(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 1L));
+
+        mvc.perform(patch("/items/1")
+                        .content(mapper.writeValueAsString(itemDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1")
+                )
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Конфликт изменений"), String.class));
+    }
+
     @Test
     void testGetItemById() throws Exception {
         when(itemService.getItemById(anyLong(), anyLong()))
@@ -121,8 +144,8 @@ public class ItemControllerMockMvcTest {
 
     @Test
     void testFindItemsByOwnerId() throws Exception {
-        when(itemService.findItemsByOwnerId(anyLong(), anyInt(), anyInt()))
-                .thenReturn(List.of(itemDto));
+        when(itemService.findTaggedItemsByOwnerId(anyLong(), anyInt(), anyInt()))
+                .thenReturn(new Tagged<>("\"tag\"", () -> List.of(itemDto)));
 
         mvc.perform(get("/items")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -156,4 +179,39 @@ public class ItemControllerMockMvcTest {
                 .andExpect(jsonPath("$[0].requestId", is(itemDto.getRequestId()), Long.class))
                 .andExpect(jsonPath("$[0].available", is(itemDto.getAvailable()), Boolean.class));
     }
+
+    @Test
+    void testFindCommentsWithNextCursor() throws Exception {
+        when(itemService.findComments(anyLong(), any(KeysetCursor.class), anyInt()))
+                .thenReturn(List.of(commentDto));
+
+        mvc.perform(get("/items/1/comments?size=1")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(KeysetCursor.NEXT_CURSOR_HEADER,
+                        new KeysetCursor(commentDto.getCreated(), commentDto.getId()).encode()))
+                .andExpect(jsonPath("$[0].id", is(commentDto.getId()), Long.class))
+                .andExpect(jsonPath("$[0].text", is(commentDto.getText()), String.class));
+    }
+
+    @Test
+    void testGetAvailability() throws Exception {
+        LocalDateTime from = created.plusDays(1);
+        LocalDateTime to = created.plusDays(3);
+        when(itemService.getAvailability(1L, from, to))
+                .thenReturn(new ItemAvailabilityDto(1L, true, from, to,
+                        List.of(new PeriodDto(from, from.plusDays(1))),
+                        List.of(new PeriodDto(from.plusDays(1), to))));
+
+        mvc.perform(get("/items/1/availability?from={from}&to={to}", from.format(formatter), to.format(formatter))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available", is(true)))
+                .andExpect(jsonPath("$.free[0].end", is(from.plusDays(1).format(formatter))))
+                .andExpect(jsonPath("$.busy[0].start", is(from.plusDays(1).format(formatter))));
+    }
 }
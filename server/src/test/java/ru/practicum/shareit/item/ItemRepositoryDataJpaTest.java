@@ -1,10 +1,13 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.model.Item;
@@ -12,11 +15,14 @@ import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 
 import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.allOf;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
 @DataJpaTest(
@@ -55,4 +61,56 @@ public class ItemRepositoryDataJpaTest {
         )));
 
     }
+
+    @Test
+    void testSaveWithStaleVersion() {
+        User user = new User();
+        user.setName("Glen");
+        user.setEmail("glen@test.ru");
+        em.persist(user);
+
+        Item item = new Item();
+        item.setName("Маска");
+        item.setDescription("Маска зомби карнавальная");
+        item.setOwner(user);
+        item.setAvailable(true);
+        em.persist(item);
+        em.flush();
+        Item stale = new Item(item.getId(), user, null, item.getName(), "Старое описание", true, item.getVersion());
+
+        item.setDescription("Маска зомби");
+        em.flush();
+        em.clear();
+
+        assertThat(em.find(Item.class, item.getId()).getVersion(), equalTo(stale.getVersion() + 1));
+        assertThrows(OptimisticLockingFailureException.class, () -> itemRepository.save(stale));
+    }
+
+    @Test
+    void testSaveAllInBatches() {
+        User user = new User();
+        user.setName("Glen");
+        user.setEmail("glen@test.ru");
+        em.persist(user);
+        em.flush();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Item item = new Item();
+            item.setName("Маска " + i);
+            item.setDescription("Маска карнавальная");
+            item.setOwner(user);
+            item.setAvailable(true);
+            items.add(item);
+        }
+        Statistics statistics = em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        itemRepository.saveAll(items);
+        em.flush();
+
+        // Id берутся пулами по 50, а вставки уходят пакетами одним подготовленным запросом
+        assertThat(statistics.getEntityInsertCount(), equalTo(120L));
+        assertThat(statistics.getPrepareStatementCount(), lessThanOrEqualTo(5L));
+    }
 }
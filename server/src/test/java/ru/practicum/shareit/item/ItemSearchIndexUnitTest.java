@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.TextAnalyzer;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ItemSearchIndexUnitTest {
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSearchIndex();
+        index.put(1L, 0L, "Дрель", "Простая дрель", true);
+        index.put(2L, 0L, "Отвертка", "Аккумуляторная отвертка, подходит вместо дрели", true);
+        index.put(3L, 0L, "Аккумуляторная дрель", "Дрель с аккумулятором", true);
+        index.put(4L, 0L, "Дрель ударная", "Сломана", false);
+    }
+
+    @Test
+    void testAnalyze() {
+        assertThat(TextAnalyzer.analyze("Аккумуляторная ДРЕЛЬ, дрели!"),
+                equalTo(List.of("аккумуляторн", "дрел", "дрел")));
+        assertThat(TextAnalyzer.analyze("Drilling drills"), equalTo(List.of("drill", "drill")));
+    }
+
+    @Test
+    void testSearchRanksNameMatchesFirst() {
+        assertThat(index.search("дРелЬ"), contains(1L, 3L, 2L));
+        assertThat(index.search("аккумулятор"), contains(3L, 2L));
+        assertThat(index.search("аккумуляторная дрель"), contains(3L, 2L));
+    }
+
+    @Test
+    void testUnavailableAndUpdatedItems() {
+        assertThat(index.search("ударная"), empty());
+
+        index.put(1L, 1L, "Пила", "Пилит", true);
+        assertThat(index.search("дрель"), contains(3L, 2L));
+        assertThat(index.search("пила"), contains(1L));
+
+        index.put(1L, 2L, "Пила", "Пилит", false);
+        assertThat(index.search("пила"), empty());
+    }
+
+    @Test
+    void testOlderVersionDoesNotOverwriteNewer() {
+        index.put(1L, 2L, "Пила", "Пилит", true);
+        index.put(1L, 1L, "Дрель", "Сверлит", true);
+
+        assertThat(index.search("пила"), contains(1L));
+        assertThat(index.search("дрель"), contains(3L, 2L));
+    }
+}
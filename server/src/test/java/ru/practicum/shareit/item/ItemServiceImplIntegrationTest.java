@@ -1,21 +1,40 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.NewBookingDto;
+import ru.practicum.shareit.booking.dto.PeriodDto;
+import ru.practicum.shareit.exception.ObjectNotValidException;
+import ru.practicum.shareit.item.comments.Comment;
+import ru.practicum.shareit.item.comments.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoWithBookings;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.allOf;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
 @SpringBootTest(
@@ -25,6 +44,8 @@ import static org.hamcrest.Matchers.*;
 public class ItemServiceImplIntegrationTest {
     private final ItemService service;
     private final UserService userService;
+    private final BookingService bookingService;
+    private final EntityManager em;
 
     @Test
     void testFindItemsByOwnerId() {
@@ -53,7 +74,7 @@ public class ItemServiceImplIntegrationTest {
         ItemDto addedItemOne = service.addItem(createdUserOne.getId(), itemDtoOne);
         service.addItem(createdUserTwo.getId(), itemDtoTwo);
 
-        List<ItemDto> items = service.findItemsByOwnerId(createdUserOne.getId(), 0, 5);
+        List<ItemDto> items = service.findTaggedItemsByOwnerId(createdUserOne.getId(), 0, 5).getBody();
 
         assertThat(items, hasSize(1));
         assertThat(items, hasItem(allOf(
@@ -64,4 +85,206 @@ public class ItemServiceImplIntegrationTest {
                 hasProperty("available", equalTo(addedItemOne.getAvailable()))
         )));
     }
+
+    @Test
+    void testFindItemsByOwnerIdFromProjections() {
+        UserDto owner = userService.createUser(UserDto.builder()
+                .name("Roland")
+                .email("roland@test.ru")
+                .build());
+        UserDto booker = userService.createUser(UserDto.builder()
+                .name("Voland")
+                .email("voland@test.ru")
+                .build());
+        ItemDto saw = service.addItem(owner.getId(), ItemDto.builder()
+                .name("Пила")
+                .description("Пилит")
+                .available(true)
+                .build());
+        ItemDto drill = service.addItem(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Сверлит")
+                .available(true)
+                .build());
+        service.addItem(owner.getId(), ItemDto.builder()
+                .name("Молоток")
+                .description("Забивает")
+                .available(true)
+                .build());
+        BookingDto sawBooking = bookingService.add(NewBookingDto.builder()
+                .itemId(saw.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build(), booker.getId());
+        bookingService.approveBooking(sawBooking.getId(), true, owner.getId());
+        em.persist(Comment.builder()
+                .item(em.find(Item.class, drill.getId()))
+                .author(em.find(User.class, booker.getId()))
+                .text("Хорошая дрель")
+                .created(LocalDateTime.now())
+                .build());
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemDto> items = service.findTaggedItemsByOwnerId(owner.getId(), 0, 10).getBody();
+
+        assertThat(items, hasSize(3));
+        assertThat(items.get(0), hasProperty("nextBooking", hasProperty("bookerId", equalTo(booker.getId()))));
+        assertThat(items.get(1), hasProperty("comments", contains(allOf(
+                hasProperty("authorName", equalTo("Voland")),
+                hasProperty("text", equalTo("Хорошая дрель"))
+        ))));
+        // Предметы, последние и ближайшие бронирования, отзывы; ни одна сущность не загружается
+        assertThat(statistics.getPrepareStatementCount(), equalTo(4L));
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount(), equalTo(0));
+    }
+
+    @Test
+    void testLatestCommentsAndCommentPages() {
+        UserDto owner = userService.createUser(UserDto.builder()
+                .name("Roland")
+                .email("roland@test.ru")
+                .build());
+        UserDto author = userService.createUser(UserDto.builder()
+                .name("Voland")
+                .email("voland@test.ru")
+                .build());
+        ItemDto saw = service.addItem(owner.getId(), ItemDto.builder()
+                .name("Пила")
+                .description("Пилит")
+                .available(true)
+                .build());
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 12; i++) {
+            em.persist(Comment.builder()
+                    .item(em.find(Item.class, saw.getId()))
+                    .author(em.find(User.class, author.getId()))
+                    .text("Отзыв " + i)
+                    .created(created.plusMinutes(i))
+                    .build());
+        }
+        em.flush();
+        em.clear();
+
+        ItemDtoWithBookings item = (ItemDtoWithBookings) service.getItemById(saw.getId(), owner.getId());
+
+        assertThat(item.getCommentCount(), equalTo(12L));
+        assertThat(item.getComments(), hasSize(10));
+        assertThat(item.getComments().get(0).getText(), equalTo("Отзыв 2"));
+        assertThat(item.getComments().get(9).getText(), equalTo("Отзыв 11"));
+
+        List<CommentDto> firstPage = service.findComments(saw.getId(), KeysetCursor.first(), 5);
+        CommentDto last = firstPage.get(4);
+        List<CommentDto> secondPage = service.findComments(saw.getId(),
+                new KeysetCursor(last.getCreated(), last.getId()), 10);
+
+        assertThat(firstPage.get(0).getText(), equalTo("Отзыв 11"));
+        assertThat(last.getText(), equalTo("Отзыв 7"));
+        assertThat(secondPage, hasSize(7));
+        assertThat(secondPage.get(0).getText(), equalTo("Отзыв 6"));
+        assertThat(secondPage.get(6).getText(), equalTo("Отзыв 0"));
+    }
+
+    @Test
+    void testGetAvailability() {
+        UserDto owner = userService.createUser(UserDto.builder().name("Roland").email("roland@test.ru").build());
+        UserDto booker = userService.createUser(UserDto.builder().name("Voland").email("voland@test.ru").build());
+        ItemDto saw = service.addItem(owner.getId(),
+                ItemDto.builder().name("Пила").description("Пилит").available(true).build());
+        // Карта занятости хранит часы, поэтому бронирования выровнены по началу часа
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        for (int day : new int[]{3, 1}) {
+            bookingService.add(NewBookingDto.builder()
+                    .itemId(saw.getId())
+                    .start(from.plusDays(day))
+                    .end(from.plusDays(day + 1))
+                    .build(), booker.getId());
+        }
+
+        ItemAvailabilityDto availability = service.getAvailability(saw.getId(), from, from.plusDays(5));
+
+        assertThat(availability.getBusy(), contains(
+                new PeriodDto(from.plusDays(1), from.plusDays(2)),
+                new PeriodDto(from.plusDays(3), from.plusDays(4))));
+        assertThat(availability.getFree(), contains(
+                new PeriodDto(from, from.plusDays(1)),
+                new PeriodDto(from.plusDays(2), from.plusDays(3)),
+                new PeriodDto(from.plusDays(4), from.plusDays(5))));
+        assertThrows(ObjectNotValidException.class,
+                () -> service.getAvailability(saw.getId(), from.plusDays(2), from.plusDays(1)));
+    }
+
+    @Test
+    void testGetAvailabilityClipsBookingSpanningFrom() {
+        UserDto owner = userService.createUser(UserDto.builder().name("Roland").email("roland@test.ru").build());
+        UserDto booker = userService.createUser(UserDto.builder().name("Voland").email("voland@test.ru").build());
+        ItemDto saw = service.addItem(owner.getId(),
+                ItemDto.builder().name("Пила").description("Пилит").available(true).build());
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        bookingService.add(NewBookingDto.builder()
+                .itemId(saw.getId())
+                .start(from.plusDays(1))
+                .end(from.plusDays(3))
+                .build(), booker.getId());
+        bookingService.add(NewBookingDto.builder()
+                .itemId(saw.getId())
+                .start(from.plusDays(3))
+                .end(from.plusDays(4))
+                .build(), booker.getId());
+        BookingDto rejected = bookingService.add(NewBookingDto.builder()
+                .itemId(saw.getId())
+                .start(from.plusDays(4))
+                .end(from.plusDays(5))
+                .build(), booker.getId());
+        bookingService.approveBooking(rejected.getId(), false, owner.getId());
+
+        ItemAvailabilityDto availability = service.getAvailability(saw.getId(), from.plusDays(2), from.plusDays(6));
+
+        // Смежные бронирования занимают подряд идущие часы карты и сливаются в один период
+        assertThat(availability.getBusy(), contains(new PeriodDto(from.plusDays(2), from.plusDays(4))));
+        assertThat(availability.getFree(), contains(new PeriodDto(from.plusDays(4), from.plusDays(6))));
+    }
+
+    @Test
+    void testSearchItemsByPhraseTreatsLikeWildcardsLiterally() {
+        UserDto owner = userService.createUser(UserDto.builder().name("Roland").email("roland@test.ru").build());
+        ItemDto percent = service.addItem(owner.getId(),
+                ItemDto.builder().name("Скидка 50%").description("Купон").available(true).build());
+        ItemDto underscore = service.addItem(owner.getId(),
+                ItemDto.builder().name("Файл snake_case").description("Пример").available(true).build());
+        service.addItem(owner.getId(), ItemDto.builder().name("Дрель").description("Сверлит").available(true).build());
+
+        assertThat(service.searchItemsByPhrase("%", 0, 10), contains(hasProperty("id", equalTo(percent.getId()))));
+        assertThat(service.searchItemsByPhrase("_", 0, 10), contains(hasProperty("id", equalTo(underscore.getId()))));
+        assertThat(service.searchItemsByPhrase("\\", 0, 10), empty());
+    }
+
+    @Test
+    void testGetAvailabilityRoundsPartialHoursAndReadsFarIntervalFromDatabase() {
+        UserDto owner = userService.createUser(UserDto.builder().name("Roland").email("roland@test.ru").build());
+        UserDto booker = userService.createUser(UserDto.builder().name("Voland").email("voland@test.ru").build());
+        ItemDto saw = service.addItem(owner.getId(),
+                ItemDto.builder().name("Пила").description("Пилит").available(true).build());
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusDays(1);
+        LocalDateTime far = hour.plusDays(500);
+        bookingService.add(NewBookingDto.builder()
+                .itemId(saw.getId())
+                .start(hour.plusMinutes(15))
+                .end(hour.plusMinutes(45))
+                .build(), booker.getId());
+        bookingService.add(NewBookingDto.builder()
+                .itemId(saw.getId())
+                .start(far.plusMinutes(15))
+                .end(far.plusMinutes(45))
+                .build(), booker.getId());
+
+        // Час, занятый частично, в карте занят целиком
+        assertThat(service.getAvailability(saw.getId(), hour.minusHours(1), hour.plusHours(2)).getBusy(),
+                contains(new PeriodDto(hour, hour.plusHours(1))));
+        // За пределами карты границы берутся из базы как есть
+        assertThat(service.getAvailability(saw.getId(), far.minusHours(1), far.plusHours(2)).getBusy(),
+                contains(new PeriodDto(far.plusMinutes(15), far.plusMinutes(45))));
+    }
 }
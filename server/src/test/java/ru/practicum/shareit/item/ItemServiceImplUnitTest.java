@@ -8,10 +8,12 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.ItemAvailabilityIndex;
+import ru.practicum.shareit.booking.ItemBookingPointer;
+import ru.practicum.shareit.booking.ItemBookingPointerService;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NoRightsForUpdateException;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
@@ -22,6 +24,7 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBookings;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.SqlItemSearchEngine;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.ItemRequestRepository;
@@ -31,6 +34,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.CoreMatchers.allOf;
@@ -52,6 +56,8 @@ public class ItemServiceImplUnitTest {
     private CommentRepository commentRepository;
     @Mock
     private ItemRequestRepository requestRepository;
+    @Mock
+    private ItemBookingPointerService bookingPointerService;
 
     @Test
     void testGetItemByIdOkByUser() {
@@ -60,10 +66,10 @@ public class ItemServiceImplUnitTest {
         Mockito
                 .when(itemRepository.getItemById(1L))
                 .thenReturn(new Item(1L,
-                        new User(1L, "Steve", "steve@test.com"),
-                        null, "Пила", "Пилит", true));
+                        new User(1L, "Steve", "steve@test.com", null),
+                        null, "Пила", "Пилит", true, null));
         Mockito
-                .when(commentRepository.findByItemIdInOrderByCreated(Mockito.anyCollection()))
+                .when(commentRepository.findLatestByItemIdIn(Mockito.anyCollection(), Mockito.anyInt()))
                 .thenReturn(Collections.emptyList());
 
         ItemDto itemDto = service.getItemById(1L, 2L);
@@ -77,31 +83,31 @@ public class ItemServiceImplUnitTest {
 
         Mockito.verify(itemRepository, Mockito.times(1))
                 .getItemById(1L);
-        Mockito.verifyNoInteractions(bookingRepository);
+        Mockito.verifyNoInteractions(bookingPointerService);
         Mockito.verify(commentRepository, Mockito.times(1))
-                .findByItemIdInOrderByCreated(Mockito.anyCollection());
+                .findLatestByItemIdIn(Mockito.anyCollection(), Mockito.anyInt());
     }
 
     @Test
     void testGetItemByIdOkByUserWithOneBookingLast() {
         ItemService service = makeItemService();
-        User owner = new User(1L, "Ken", "ken@test.ru");
-        User booker = new User(2L, "Barbie", "barbie@test.ru");
-        Item item = new Item(1L, owner, null, "Пила", "Пилит", true);
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
+        User booker = new User(2L, "Barbie", "barbie@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
         Booking lastBooking = new Booking(1L, booker, item, LocalDateTime.now().minusDays(4),
-                LocalDateTime.now().minusDays(3), BookingStatus.APPROVED);
+                LocalDateTime.now().minusDays(3), BookingStatus.APPROVED, null);
 
         Mockito
                 .when(itemRepository.getItemById(1L))
                 .thenReturn(new Item(1L,
-                        new User(1L, "Steve", "steve@test.com"),
-                        null, "Пила", "Пилит", true));
+                        new User(1L, "Steve", "steve@test.com", null),
+                        null, "Пила", "Пилит", true, null));
         Mockito
-                .when(commentRepository.findByItemIdInOrderByCreated(Mockito.anyCollection()))
+                .when(commentRepository.findLatestByItemIdIn(Mockito.anyCollection(), Mockito.anyInt()))
                 .thenReturn(Collections.emptyList());
         Mockito
-                .when(bookingRepository.findLastAndNearFutureBookingsByItemIn(anySet(), Mockito.any(LocalDateTime.class), Mockito.any(Sort.class)))
-                .thenReturn(List.of(lastBooking));
+                .when(bookingPointerService.findByItemIds(anySet()))
+                .thenReturn(Map.of(1L, new ItemBookingPointer(1L, lastBooking, null, null)));
 
         ItemDto itemDto = service.getItemById(1L, 1L);
 
@@ -114,32 +120,32 @@ public class ItemServiceImplUnitTest {
 
         Mockito.verify(itemRepository, Mockito.times(1))
                 .getItemById(1L);
-        Mockito.verify(bookingRepository, Mockito.times(1))
-                .findLastAndNearFutureBookingsByItemIn(anySet(), Mockito.any(LocalDateTime.class), Mockito.any(Sort.class));
+        Mockito.verify(bookingPointerService, Mockito.times(1))
+                .findByItemIds(anySet());
         Mockito.verify(commentRepository, Mockito.times(1))
-                .findByItemIdInOrderByCreated(Mockito.anyCollection());
+                .findLatestByItemIdIn(Mockito.anyCollection(), Mockito.anyInt());
     }
 
     @Test
     void testGetItemByIdOkByUserWithOneBookingFuture() {
         ItemService service = makeItemService();
-        User owner = new User(1L, "Ken", "ken@test.ru");
-        User booker = new User(2L, "Barbie", "barbie@test.ru");
-        Item item = new Item(1L, owner, null, "Пила", "Пилит", true);
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
+        User booker = new User(2L, "Barbie", "barbie@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
         Booking nextBooking = new Booking(1L, booker, item, LocalDateTime.now().plusDays(4),
-                LocalDateTime.now().plusDays(6), BookingStatus.APPROVED);
+                LocalDateTime.now().plusDays(6), BookingStatus.APPROVED, null);
 
         Mockito
                 .when(itemRepository.getItemById(1L))
                 .thenReturn(new Item(1L,
-                        new User(1L, "Steve", "steve@test.com"),
-                        null, "Пила", "Пилит", true));
+                        new User(1L, "Steve", "steve@test.com", null),
+                        null, "Пила", "Пилит", true, null));
         Mockito
-                .when(commentRepository.findByItemIdInOrderByCreated(Mockito.anyCollection()))
+                .when(commentRepository.findLatestByItemIdIn(Mockito.anyCollection(), Mockito.anyInt()))
                 .thenReturn(Collections.emptyList());
         Mockito
-                .when(bookingRepository.findLastAndNearFutureBookingsByItemIn(anySet(), Mockito.any(LocalDateTime.class), Mockito.any(Sort.class)))
-                .thenReturn(List.of(nextBooking));
+                .when(bookingPointerService.findByItemIds(anySet()))
+                .thenReturn(Map.of(1L, new ItemBookingPointer(1L, null, nextBooking, null)));
 
         ItemDto itemDto = service.getItemById(1L, 1L);
 
@@ -152,34 +158,34 @@ public class ItemServiceImplUnitTest {
 
         Mockito.verify(itemRepository, Mockito.times(1))
                 .getItemById(1L);
-        Mockito.verify(bookingRepository, Mockito.times(1))
-                .findLastAndNearFutureBookingsByItemIn(anySet(), Mockito.any(LocalDateTime.class), Mockito.any(Sort.class));
+        Mockito.verify(bookingPointerService, Mockito.times(1))
+                .findByItemIds(anySet());
         Mockito.verify(commentRepository, Mockito.times(1))
-                .findByItemIdInOrderByCreated(Mockito.anyCollection());
+                .findLatestByItemIdIn(Mockito.anyCollection(), Mockito.anyInt());
     }
 
     @Test
     void testGetItemByIdOkByUserWithTwoBooking() {
         ItemService service = makeItemService();
-        User owner = new User(1L, "Ken", "ken@test.ru");
-        User booker = new User(2L, "Barbie", "barbie@test.ru");
-        Item item = new Item(1L, owner, null, "Пила", "Пилит", true);
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
+        User booker = new User(2L, "Barbie", "barbie@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
         Booking lastBooking = new Booking(1L, booker, item, LocalDateTime.now().minusDays(4),
-                LocalDateTime.now().minusDays(3), BookingStatus.APPROVED);
+                LocalDateTime.now().minusDays(3), BookingStatus.APPROVED, null);
         Booking nextBooking = new Booking(1L, booker, item, LocalDateTime.now().plusDays(3),
-                LocalDateTime.now().plusDays(6), BookingStatus.APPROVED);
+                LocalDateTime.now().plusDays(6), BookingStatus.APPROVED, null);
 
         Mockito
                 .when(itemRepository.getItemById(1L))
                 .thenReturn(new Item(1L,
-                        new User(1L, "Steve", "steve@test.com"),
-                        null, "Пила", "Пилит", true));
+                        new User(1L, "Steve", "steve@test.com", null),
+                        null, "Пила", "Пилит", true, null));
         Mockito
-                .when(commentRepository.findByItemIdInOrderByCreated(Mockito.anyCollection()))
+                .when(commentRepository.findLatestByItemIdIn(Mockito.anyCollection(), Mockito.anyInt()))
                 .thenReturn(Collections.emptyList());
         Mockito
-                .when(bookingRepository.findLastAndNearFutureBookingsByItemIn(anySet(), Mockito.any(LocalDateTime.class), Mockito.any(Sort.class)))
-                .thenReturn(List.of(lastBooking, nextBooking));
+                .when(bookingPointerService.findByItemIds(anySet()))
+                .thenReturn(Map.of(1L, new ItemBookingPointer(1L, lastBooking, nextBooking, null)));
 
 
         ItemDto itemDto = service.getItemById(1L, 1L);
@@ -193,10 +199,10 @@ public class ItemServiceImplUnitTest {
 
         Mockito.verify(itemRepository, Mockito.times(1))
                 .getItemById(1L);
-        Mockito.verify(bookingRepository, Mockito.times(1))
-                .findLastAndNearFutureBookingsByItemIn(anySet(), Mockito.any(LocalDateTime.class), Mockito.any(Sort.class));
+        Mockito.verify(bookingPointerService, Mockito.times(1))
+                .findByItemIds(anySet());
         Mockito.verify(commentRepository, Mockito.times(1))
-                .findByItemIdInOrderByCreated(Mockito.anyCollection());
+                .findLatestByItemIdIn(Mockito.anyCollection(), Mockito.anyInt());
     }
 
     @Test
@@ -206,14 +212,13 @@ public class ItemServiceImplUnitTest {
         Mockito
                 .when(itemRepository.getItemById(1L))
                 .thenReturn(new Item(1L,
-                        new User(1L, "Steve", "steve@test.com"),
-                        null, "Пила", "Пилит", true));
+                        new User(1L, "Steve", "steve@test.com", null),
+                        null, "Пила", "Пилит", true, null));
         Mockito
-                .when(bookingRepository.findLastAndNearFutureBookingsByItemIn(Mockito.anyCollection(),
-                        Mockito.any(LocalDateTime.class), Mockito.any(Sort.class)))
-                .thenReturn(Collections.emptyList());
+                .when(bookingPointerService.findByItemIds(Mockito.anyCollection()))
+                .thenReturn(Collections.emptyMap());
         Mockito
-                .when(commentRepository.findByItemIdInOrderByCreated(Mockito.anyCollection()))
+                .when(commentRepository.findLatestByItemIdIn(Mockito.anyCollection(), Mockito.anyInt()))
                 .thenReturn(Collections.emptyList());
 
         ItemDtoWithBookings itemDto = (ItemDtoWithBookings) service.getItemById(1L, 1L);
@@ -229,11 +234,10 @@ public class ItemServiceImplUnitTest {
 
         Mockito.verify(itemRepository, Mockito.times(1))
                 .getItemById(1L);
-        Mockito.verify(bookingRepository, Mockito.times(1))
-                .findLastAndNearFutureBookingsByItemIn(Mockito.anyCollection(),
-                        Mockito.any(LocalDateTime.class), Mockito.any(Sort.class));
+        Mockito.verify(bookingPointerService, Mockito.times(1))
+                .findByItemIds(Mockito.anyCollection());
         Mockito.verify(commentRepository, Mockito.times(1))
-                .findByItemIdInOrderByCreated(Mockito.anyCollection());
+                .findLatestByItemIdIn(Mockito.anyCollection(), Mockito.anyInt());
     }
 
     @Test
@@ -258,12 +262,12 @@ public class ItemServiceImplUnitTest {
     @Test
     void testAddItemOk() {
         ItemService service = makeItemService();
-        User owner = new User(1L, "Ken", "ken@test.ru");
-        Item newItem = new Item(null, owner, null, "Пила", "Пилит", true);
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
+        Item newItem = new Item(null, owner, null, "Пила", "Пилит", true, null);
         Mockito.when(userRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.of(owner));
         Mockito.when(itemRepository.save(newItem))
-                .thenReturn(new Item(1L, owner, null, "Пила", "Пилит", true));
+                .thenReturn(new Item(1L, owner, null, "Пила", "Пилит", true, null));
 
         ItemDto itemDto = ItemDto.builder()
                 .name("Пила")
@@ -277,6 +281,8 @@ public class ItemServiceImplUnitTest {
         Mockito.verifyNoInteractions(requestRepository);
         Mockito.verify(itemRepository, Mockito.times(1))
                 .save(newItem);
+        Mockito.verify(bookingPointerService, Mockito.times(1))
+                .createFor(1L);
 
         assertThat(itemDtoAdd.getId(), equalTo(1L));
         assertThat(itemDtoAdd.getAvailable(), equalTo(true));
@@ -309,7 +315,7 @@ public class ItemServiceImplUnitTest {
     @Test
     void testAddItemRequestNotFound() {
         ItemService service = makeItemService();
-        User owner = new User(1L, "Ken", "ken@test.ru");
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
 
         Mockito.when(userRepository.findById(1L))
                 .thenReturn(Optional.of(owner));
@@ -360,7 +366,7 @@ public class ItemServiceImplUnitTest {
     @Test
     void testUpdateItemNotFound() {
         ItemService service = makeItemService();
-        User owner = new User(1L, "Ken", "ken@test.ru");
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
 
         Mockito.when(userRepository.findById(1L))
                 .thenReturn(Optional.of(owner));
@@ -387,9 +393,9 @@ public class ItemServiceImplUnitTest {
     @Test
     void testUpdateItemNoRightsForUpdate() {
         ItemService service = makeItemService();
-        User owner = new User(1L, "Ken", "ken@test.ru");
-        User user = new User(2L, "Peter", "peter@test.ru");
-        Item item = new Item(1L, owner, null, "Пила", "Пилит", true);
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
+        User user = new User(2L, "Peter", "peter@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
         Mockito.when(userRepository.findById(2L))
                 .thenReturn(Optional.of(user));
         Mockito.when(itemRepository.getItemById(1L))
@@ -416,8 +422,8 @@ public class ItemServiceImplUnitTest {
     @Test
     void testUpdateItemNewOwnerNotFound() {
         ItemService service = makeItemService();
-        User owner = new User(1L, "Ken", "ken@test.ru");
-        Item item = new Item(1L, owner, null, "Пила", "Пилит", true);
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
         Mockito.when(userRepository.findById(1L))
                 .thenReturn(Optional.of(owner));
         Mockito.when(itemRepository.getItemById(1L))
@@ -449,10 +455,10 @@ public class ItemServiceImplUnitTest {
     @Test
     void testUpdateItemOk() {
         ItemService service = makeItemService();
-        User owner = new User(1L, "Ken", "ken@test.ru");
-        User newOwner = new User(2L, "Barbie", "barbie@test.ru");
-        Item item = new Item(1L, owner, null, "Пила", "Пилит", true);
-        Item updatedItem = new Item(1L, newOwner, null, "Бензопила", "Пилит просто супер", false);
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
+        User newOwner = new User(2L, "Barbie", "barbie@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
+        Item updatedItem = new Item(1L, newOwner, null, "Бензопила", "Пилит просто супер", false, null);
         Mockito.when(userRepository.findById(1L))
                 .thenReturn(Optional.of(owner));
         Mockito.when(userRepository.findById(2L))
@@ -498,8 +504,8 @@ public class ItemServiceImplUnitTest {
     @Test
     void searchItemsByPhraseOk() {
         ItemService service = makeItemService();
-        User owner = new User(1L, "Ken", "ken@test.ru");
-        Item item = new Item(1L, owner, null, "Пила", "Пилит", true);
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
         Mockito.when(itemRepository.findByNameOrDescription(anyString(), Mockito.any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(List.of(item)));
 
@@ -543,8 +549,8 @@ public class ItemServiceImplUnitTest {
     void addCommentUserNotFound() {
         ItemService service = makeItemService();
 
-        User owner = new User(1L, "Ken", "ken@test.ru");
-        Item item = new Item(1L, owner, null, "Пила", "Пилит", true);
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
         Mockito.when(itemRepository.getItemById(1L))
                 .thenReturn(item);
         Mockito.when(userRepository.findById(3L))
@@ -569,16 +575,16 @@ public class ItemServiceImplUnitTest {
     void addCommentBookingNotFound() {
         ItemService service = makeItemService();
 
-        User owner = new User(1L, "Ken", "ken@test.ru");
-        Item item = new Item(1L, owner, null, "Пила", "Пилит", true);
-        User commentator = new User(2L, "Джон Крамер", "john@saw.ru");
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
+        User commentator = new User(2L, "Джон Крамер", "john@saw.ru", null);
 
         Mockito.when(itemRepository.getItemById(1L))
                 .thenReturn(item);
         Mockito.when(userRepository.findById(2L))
                 .thenReturn(Optional.of(commentator));
-        Mockito.when(bookingRepository.findByItemIdAndBookerIdAndStatusNotAndEndBefore(Mockito.anyLong(), Mockito.anyLong(),
-                        Mockito.any(BookingStatus.class), Mockito.any(LocalDateTime.class)))
+        Mockito.when(bookingRepository.findByItemIdAndBookerIdAndStatusNotInAndEndBefore(Mockito.anyLong(), Mockito.anyLong(),
+                        Mockito.anyCollection(), Mockito.any(LocalDateTime.class)))
                 .thenReturn(Collections.emptyList());
 
         CommentDto commentDto = CommentDto.builder()
@@ -590,8 +596,8 @@ public class ItemServiceImplUnitTest {
 
         Mockito.verifyNoInteractions(commentRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findByItemIdAndBookerIdAndStatusNotAndEndBefore(Mockito.anyLong(), Mockito.anyLong(),
-                        Mockito.any(BookingStatus.class), Mockito.any(LocalDateTime.class));
+                .findByItemIdAndBookerIdAndStatusNotInAndEndBefore(Mockito.anyLong(), Mockito.anyLong(),
+                        Mockito.anyCollection(), Mockito.any(LocalDateTime.class));
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(2L);
         Mockito.verify(itemRepository, Mockito.times(1))
@@ -604,12 +610,12 @@ public class ItemServiceImplUnitTest {
     void addCommentBookingOk() {
         ItemService service = makeItemService();
 
-        User owner = new User(1L, "Ken", "ken@test.ru");
-        User booker = new User(2L, "Barbie", "barbie@test.ru");
-        Item item = new Item(1L, owner, null, "Пила", "Пилит", true);
-        User commentator = new User(2L, "Джон Крамер", "john@saw.ru");
+        User owner = new User(1L, "Ken", "ken@test.ru", null);
+        User booker = new User(2L, "Barbie", "barbie@test.ru", null);
+        Item item = new Item(1L, owner, null, "Пила", "Пилит", true, null);
+        User commentator = new User(2L, "Джон Крамер", "john@saw.ru", null);
         Booking booking = new Booking(1L, booker, item, LocalDateTime.now().minusDays(4),
-                LocalDateTime.now().minusDays(3), BookingStatus.APPROVED);
+                LocalDateTime.now().minusDays(3), BookingStatus.APPROVED, null);
         Comment comment = new Comment(1L, item, booker, "Супер", LocalDateTime.now());
 
         Mockito
@@ -619,8 +625,8 @@ public class ItemServiceImplUnitTest {
                 .when(userRepository.findById(2L))
                 .thenReturn(Optional.of(commentator));
         Mockito
-                .when(bookingRepository.findByItemIdAndBookerIdAndStatusNotAndEndBefore(Mockito.anyLong(), Mockito.anyLong(),
-                        Mockito.any(BookingStatus.class), Mockito.any(LocalDateTime.class)))
+                .when(bookingRepository.findByItemIdAndBookerIdAndStatusNotInAndEndBefore(Mockito.anyLong(), Mockito.anyLong(),
+                        Mockito.anyCollection(), Mockito.any(LocalDateTime.class)))
                 .thenReturn(List.of(booking));
         Mockito
                 .when(commentRepository.save(Mockito.any(Comment.class)))
@@ -635,8 +641,8 @@ public class ItemServiceImplUnitTest {
         Mockito.verify(commentRepository, Mockito.times(1))
                 .save(Mockito.any(Comment.class));
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findByItemIdAndBookerIdAndStatusNotAndEndBefore(Mockito.anyLong(), Mockito.anyLong(),
-                        Mockito.any(BookingStatus.class), Mockito.any(LocalDateTime.class));
+                .findByItemIdAndBookerIdAndStatusNotInAndEndBefore(Mockito.anyLong(), Mockito.anyLong(),
+                        Mockito.anyCollection(), Mockito.any(LocalDateTime.class));
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(2L);
         Mockito.verify(itemRepository, Mockito.times(1))
@@ -644,6 +650,8 @@ public class ItemServiceImplUnitTest {
     }
 
     private ItemService makeItemService() {
-        return new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository, requestRepository);
+        return new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository, requestRepository,
+                bookingPointerService, new ItemAvailabilityIndex(bookingRepository, 1000, 60000),
+                new SqlItemSearchEngine(itemRepository));
     }
 }
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.PostgresContainerTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.transaction.Transactional;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+
+@Transactional
+@SpringBootTest(
+        properties = {"db.name=test", "shareit.search.mode=fts"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class FtsItemSearchEngineIntegrationTest extends PostgresContainerTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final ItemSearchEngine searchEngine;
+
+    @Test
+    void testSearchRanksNameMatchesAndSkipsUnavailableItems() {
+        assertThat(searchEngine, instanceOf(FtsItemSearchEngine.class));
+        UserDto owner = userService.createUser(UserDto.builder().name("Roland").email("roland@test.ru").build());
+        ItemDto drill = addItem(owner, "Дрель", "Простая дрель", true);
+        ItemDto screwdriver = addItem(owner, "Отвертка", "Аккумуляторная отвертка, подходит вместо дрели", true);
+        ItemDto cordless = addItem(owner, "Аккумуляторная дрель", "Дрель с аккумулятором", true);
+        addItem(owner, "Дрель ударная", "Сломана", false);
+
+        // Все слова запроса ищутся по префиксу основы; совпадение в названии весит больше, чем в описании
+        assertThat(search("аккумуляторная дрель"), contains(cordless.getId(), screwdriver.getId()));
+        assertThat(search("аккум"), contains(cordless.getId(), screwdriver.getId()));
+        List<Long> found = search("дрел");
+        assertThat(found.subList(0, 2), containsInAnyOrder(drill.getId(), cordless.getId()));
+        assertThat(found.subList(2, found.size()), contains(screwdriver.getId()));
+        assertThat(search("ударная"), empty());
+    }
+
+    @Test
+    void testSearchMatchesSubstringAndIgnoresTsQuerySyntax() {
+        UserDto owner = userService.createUser(UserDto.builder().name("Roland").email("roland@test.ru").build());
+        ItemDto mask = addItem(owner, "Маска", "Маска зомби карнавальная", true);
+
+        assertThat(search("омби"), contains(mask.getId()));
+        assertThat(search("зомби & !(маска"), contains(mask.getId()));
+        assertThat(search("&|!"), empty());
+        assertThat(search("омби_карнавал"), empty());
+    }
+
+    private ItemDto addItem(UserDto owner, String name, String description, boolean available) {
+        return itemService.addItem(owner.getId(), ItemDto.builder()
+                .name(name)
+                .description(description)
+                .available(available)
+                .build());
+    }
+
+    private List<Long> search(String text) {
+        return searchEngine.search(text, 0, 10).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class FtsItemSearchEngineUnitTest {
+
+    @Test
+    void testToPrefixTsQuery() {
+        assertThat(FtsItemSearchEngine.toPrefixTsQuery("Аккумуляторная дрель"),
+                equalTo("аккумуляторная:* & дрель:*"));
+        assertThat(FtsItemSearchEngine.toPrefixTsQuery("  DRILL-2000  "), equalTo("drill:* & 2000:*"));
+    }
+
+    @Test
+    void testToPrefixTsQueryDropsTsQueryOperators() {
+        assertThat(FtsItemSearchEngine.toPrefixTsQuery("пила & !(молоток | 'дрель'):*"),
+                equalTo("пила:* & молоток:* & дрель:*"));
+        assertThat(FtsItemSearchEngine.toPrefixTsQuery("&|!:*()'"), equalTo(""));
+        assertThat(FtsItemSearchEngine.toPrefixTsQuery(""), equalTo(""));
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.request.dto.ItemRequestDtoWithItems;
+import ru.practicum.shareit.util.Tagged;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -91,8 +92,8 @@ public class ItemRequestControllerMVCTest {
 
     @Test
     void testFindAllRequests() throws Exception {
-        when(requestService.findAll(anyLong(), anyInt(), anyInt()))
-                .thenReturn(List.of(requestDto));
+        when(requestService.findTagged(anyLong(), anyInt(), anyInt()))
+                .thenReturn(new Tagged<>("\"tag\"", () -> List.of(requestDto)));
 
         mvc.perform(get("/requests/all")
                         .characterEncoding(StandardCharsets.UTF_8)
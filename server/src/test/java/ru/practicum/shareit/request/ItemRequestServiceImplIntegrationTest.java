@@ -45,7 +45,7 @@ public class ItemRequestServiceImplIntegrationTest {
                 .build();
         ItemRequestDto addedItemRequest = requestService.addRequest(itemRequestDto, createdUserOne.getId());
 
-        List<ItemRequestDtoWithItems> itemRequests = requestService.findAll(createdUserTwo.getId(), 0, 5);
+        List<ItemRequestDtoWithItems> itemRequests = requestService.findTagged(createdUserTwo.getId(), 0, 5).getBody();
 
         assertThat(itemRequests, hasSize(1));
         assertThat(itemRequests, hasItem(allOf(
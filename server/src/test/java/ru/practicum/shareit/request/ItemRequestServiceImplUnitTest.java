@@ -11,6 +11,7 @@ import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.UserIdIndex;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -34,7 +35,7 @@ public class ItemRequestServiceImplUnitTest {
 
     @BeforeEach
     public void makeItemRequestService() {
-        this.service = new ItemRequestServiceImpl(requestRepository, userRepository, itemRepository);
+        this.service = new ItemRequestServiceImpl(requestRepository, userRepository, new UserIdIndex(userRepository), itemRepository);
     }
 
     @Test
@@ -60,8 +61,8 @@ public class ItemRequestServiceImplUnitTest {
     @Test
     void testFindAllWrongUser() {
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.empty());
+                .when(userRepository.existsById(1L))
+                .thenReturn(false);
 
         final ObjectNotFoundException exception = Assertions.assertThrows(ObjectNotFoundException.class,
                 () -> service.findAll(1L));
@@ -69,31 +70,31 @@ public class ItemRequestServiceImplUnitTest {
         assertThat(exception.getMessage(), equalTo("Объект не найден"));
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verifyNoInteractions(requestRepository);
     }
 
     @Test
     void testFindAllWithPaginationWrongUser() {
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.empty());
+                .when(userRepository.existsById(1L))
+                .thenReturn(false);
 
         final ObjectNotFoundException exception = Assertions.assertThrows(ObjectNotFoundException.class,
-                () -> service.findAll(1L, 0, 5));
+                () -> service.findTagged(1L, 0, 5).getBody());
 
         assertThat(exception.getMessage(), equalTo("Объект не найден"));
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verifyNoInteractions(requestRepository);
     }
 
     @Test
     void testFindAllWithoutPaginationWrongUser() {
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.empty());
+                .when(userRepository.existsById(1L))
+                .thenReturn(false);
 
         final ObjectNotFoundException exception = Assertions.assertThrows(ObjectNotFoundException.class,
                 () -> service.findAll(1L));
@@ -101,15 +102,15 @@ public class ItemRequestServiceImplUnitTest {
         assertThat(exception.getMessage(), equalTo("Объект не найден"));
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verifyNoInteractions(requestRepository);
     }
 
     @Test
     void testFindByIdWrongUser() {
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.empty());
+                .when(userRepository.existsById(1L))
+                .thenReturn(false);
 
         final ObjectNotFoundException exception = Assertions.assertThrows(ObjectNotFoundException.class,
                 () -> service.findById(1L, 1L));
@@ -117,17 +118,16 @@ public class ItemRequestServiceImplUnitTest {
         assertThat(exception.getMessage(), equalTo("Объект не найден"));
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verifyNoInteractions(requestRepository);
         Mockito.verifyNoInteractions(itemRepository);
     }
 
     @Test
     void testFindByIdItemRequestNotFound() {
-        User user = new User(1L, "Stas", "stas@test.com");
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.of(user));
+                .when(userRepository.existsById(1L))
+                .thenReturn(true);
         Mockito
                 .when(requestRepository.findById(1L))
                 .thenReturn(Optional.empty());
@@ -138,7 +138,7 @@ public class ItemRequestServiceImplUnitTest {
         assertThat(exception.getMessage(), equalTo("Объект не найден"));
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verify(requestRepository, Mockito.times(1))
                 .findById(1L);
         Mockito.verifyNoInteractions(itemRepository);
@@ -146,13 +146,13 @@ public class ItemRequestServiceImplUnitTest {
 
     @Test
     void testFindByIdItemRequestOk() {
-        User user = new User(1L, "Stas", "stas@test.com");
-        User itemOwner = new User(2L, "Dima", "dima@test.com");
+        User user = new User(1L, "Stas", "stas@test.com", null);
+        User itemOwner = new User(2L, "Dima", "dima@test.com", null);
         ItemRequest itemRequest = new ItemRequest(1L, user, "Надо шкаф разобрать", LocalDateTime.now());
-        Item item = new Item(1L, itemOwner, itemRequest, "Отвертка", "Открутить можно", true);
+        Item item = new Item(1L, itemOwner, itemRequest, "Отвертка", "Открутить можно", true, null);
         Mockito
-                .when(userRepository.findById(1L))
-                .thenReturn(Optional.of(user));
+                .when(userRepository.existsById(1L))
+                .thenReturn(true);
         Mockito
                 .when(requestRepository.findById(1L))
                 .thenReturn(Optional.of(itemRequest));
@@ -163,7 +163,7 @@ public class ItemRequestServiceImplUnitTest {
         service.findById(1L, 1L);
 
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .existsById(1L);
         Mockito.verify(requestRepository, Mockito.times(1))
                 .findById(1L);
         Mockito.verify(itemRepository, Mockito.times(1))
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.schema;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.PostgresContainerTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+// Миграции на базе, где таблица bookings уже создана старым schema.sql и содержит пересечения
+public class BookingPeriodMigrationTest extends PostgresContainerTest {
+    private static final String LEGACY_DATABASE = "legacy";
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate admin = new JdbcTemplate(new DriverManagerDataSource(POSTGRES.getJdbcUrl(),
+                POSTGRES.getUsername(), POSTGRES.getPassword()));
+        admin.execute("DROP DATABASE IF EXISTS " + LEGACY_DATABASE);
+        admin.execute("CREATE DATABASE " + LEGACY_DATABASE);
+        String url = POSTGRES.getJdbcUrl().replace("/" + POSTGRES.getDatabaseName(), "/" + LEGACY_DATABASE);
+        dataSource = new DriverManagerDataSource(url, POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void testOverlappingLegacyBookingsAreRejectedBeforeConstraintIsAdded() {
+        flyway("1").migrate();
+        jdbcTemplate.execute("CREATE TABLE bookings (" +
+                "id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY, " +
+                "booker_id BIGINT REFERENCES users (id), " +
+                "item_id BIGINT REFERENCES items (id), " +
+                "start_date timestamp without time zone, " +
+                "end_date timestamp without time zone, " +
+                "status VARCHAR(50))");
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('Voland', 'voland@test.ru')");
+        jdbcTemplate.update("INSERT INTO items (user_id, name, description, available) VALUES (1, 'Пила', 'Пилит', true)");
+        long waiting = insertBooking("2030-01-01", "2030-01-03", "WAITING");
+        long approved = insertBooking("2030-01-02", "2030-01-04", "APPROVED");
+        long overlapsApproved = insertBooking("2030-01-03 12:00", "2030-01-05", "WAITING");
+        // Пересекается только с отклоненным миграцией бронированием, поэтому остается
+        long overlapsRejected = insertBooking("2030-01-04 12:00", "2030-01-06", "WAITING");
+        long invalid = insertBooking("2030-01-10", "2030-01-09", "WAITING");
+        long alreadyRejected = insertBooking("2030-01-02", "2030-01-04", "REJECTED");
+
+        flyway(null).migrate();
+
+        assertThat(status(waiting), equalTo("REJECTED"));
+        assertThat(status(approved), equalTo("APPROVED"));
+        assertThat(status(overlapsApproved), equalTo("REJECTED"));
+        assertThat(status(overlapsRejected), equalTo("WAITING"));
+        assertThat(status(invalid), equalTo("REJECTED"));
+        assertThat(status(alreadyRejected), equalTo("REJECTED"));
+        List<Map<String, Object>> conflicts = jdbcTemplate.queryForList(
+                "SELECT booking_id, previous_status, reason FROM bookings_period_conflicts ORDER BY booking_id");
+        assertThat(conflicts, contains(
+                Map.of("booking_id", waiting, "previous_status", "WAITING", "reason", "CROSSED_PERIOD"),
+                Map.of("booking_id", overlapsApproved, "previous_status", "WAITING", "reason", "CROSSED_PERIOD"),
+                Map.of("booking_id", invalid, "previous_status", "WAITING", "reason", "INVALID_PERIOD")));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_constraint WHERE conname = 'ex_bookings_item_period'", Long.class),
+                equalTo(1L));
+    }
+
+    private Flyway flyway(String target) {
+        FluentConfiguration configuration = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .baselineOnMigrate(true)
+                .baselineVersion("0");
+        return (target != null ? configuration.target(target) : configuration).load();
+    }
+
+    private long insertBooking(String start, String end, String status) {
+        return jdbcTemplate.queryForObject("INSERT INTO bookings (booker_id, item_id, start_date, end_date, status) " +
+                "VALUES (1, 1, CAST(? AS timestamp), CAST(? AS timestamp), ?) RETURNING id",
+                Long.class, start, end, status);
+    }
+
+    private String status(long bookingId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM bookings WHERE id = ?", String.class, bookingId);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.schema;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.sql.SQLException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class IndexCoverageCheckerIntegrationTest {
+    private final IndexCoverageChecker checker;
+
+    @Test
+    void testAllQueriesAreCoveredByIndexes() throws SQLException {
+        assertThat(checker.findUncoveredQueries(), empty());
+    }
+}
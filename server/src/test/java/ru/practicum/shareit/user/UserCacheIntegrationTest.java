@@ -0,0 +1,50 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+// Без @Transactional: в кэш второго уровня попадает только зафиксированное состояние
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UserCacheIntegrationTest {
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserService service;
+
+    @Test
+    void testGetUserByIdFromSecondLevelCache() {
+        UserDto user = service.createUser(UserDto.builder()
+                .name("Roland")
+                .email("roland.cache@test.ru")
+                .build());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        try {
+            service.getUserById(user.getId());
+            statistics.clear();
+
+            service.getUserById(user.getId());
+            service.getUserById(user.getId());
+
+            assertThat(statistics.getDomainDataRegionStatistics("users").getHitCount(), equalTo(2L));
+            assertThat(statistics.getPrepareStatementCount(), equalTo(0L));
+
+            service.updateUser(user.getId(), UserDto.builder().name("Voland").build());
+
+            assertThat(service.getUserById(user.getId()).getName(), equalTo("Voland"));
+        } finally {
+            service.deleteUserById(user.getId());
+        }
+    }
+}
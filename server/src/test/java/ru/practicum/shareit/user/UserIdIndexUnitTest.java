@@ -0,0 +1,130 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@ExtendWith(MockitoExtension.class)
+public class UserIdIndexUnitTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    void testExistsAfterRebuild() {
+        UserIdIndex index = new UserIdIndex(userRepository);
+        Mockito
+                .when(userRepository.findAllIds())
+                .thenReturn(List.of(1L, 2L));
+
+        index.rebuild();
+
+        assertThat(index.exists(1L), equalTo(true));
+        assertThat(index.exists(2L), equalTo(true));
+        Mockito.verify(userRepository, Mockito.never()).existsById(Mockito.anyLong());
+    }
+
+    @Test
+    void testExistsFallsBackToRepository() {
+        UserIdIndex index = new UserIdIndex(userRepository);
+        Mockito
+                .when(userRepository.existsById(3L))
+                .thenReturn(true);
+
+        assertThat(index.exists(3L), equalTo(true));
+        assertThat(index.exists(3L), equalTo(true));
+        Mockito.verify(userRepository, Mockito.times(1)).existsById(3L);
+    }
+
+    @Test
+    void testAddAndRemove() {
+        UserIdIndex index = new UserIdIndex(userRepository);
+        index.add(4L);
+        assertThat(index.exists(4L), equalTo(true));
+
+        index.remove(4L);
+        Mockito
+                .when(userRepository.existsById(4L))
+                .thenReturn(false);
+
+        Assertions.assertThrows(ObjectNotFoundException.class, () -> index.requireExists(4L));
+    }
+
+    @Test
+    void testRemoveWaitsForCommit() {
+        UserIdIndex index = new UserIdIndex(userRepository);
+        index.add(5L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.remove(5L);
+            assertThat(index.exists(5L), equalTo(true));
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(index.exists(5L), equalTo(false));
+    }
+
+    @Test
+    void testIdFoundDuringRemovalIsNotRemembered() {
+        UserIdIndex index = new UserIdIndex(userRepository);
+        // Запрос увидел пользователя до фиксации удаления, а ответ пришел уже после нее
+        Mockito
+                .when(userRepository.existsById(6L))
+                .thenAnswer(invocation -> {
+                    index.remove(6L);
+                    return true;
+                })
+                .thenReturn(false);
+
+        assertThat(index.exists(6L), equalTo(true));
+        assertThat(index.exists(6L), equalTo(false));
+    }
+
+    @Test
+    void testRebuildForgetsUsersDeletedElsewhere() {
+        UserIdIndex index = new UserIdIndex(userRepository);
+        Mockito
+                .when(userRepository.findAllIds())
+                .thenReturn(List.of(7L, 8L))
+                .thenReturn(List.of(8L));
+        index.rebuild();
+        assertThat(index.exists(7L), equalTo(true));
+
+        // Пользователь 7 удален через другой экземпляр
+        index.rebuild();
+
+        assertThat(index.exists(7L), equalTo(false));
+        assertThat(index.exists(8L), equalTo(true));
+    }
+
+    @Test
+    void testRebuildDropsIdRemovedWhileLoading() {
+        UserIdIndex index = new UserIdIndex(userRepository);
+        // Запрос прочитал пользователя 9 до фиксации его удаления
+        Mockito
+                .when(userRepository.findAllIds())
+                .thenAnswer(invocation -> {
+                    index.remove(9L);
+                    return List.of(9L, 10L);
+                });
+
+        index.rebuild();
+
+        assertThat(index.exists(9L), equalTo(false));
+        assertThat(index.exists(10L), equalTo(true));
+    }
+}
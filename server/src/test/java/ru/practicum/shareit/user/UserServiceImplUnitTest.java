@@ -25,13 +25,13 @@ public class UserServiceImplUnitTest {
 
     @Test
     void testUpdateUserWithValidData() {
-        UserService userService = new UserServiceImpl(mockUserRepository);
+        UserService userService = new UserServiceImpl(mockUserRepository, new UserIdIndex(mockUserRepository));
         Mockito
                 .when(mockUserRepository.findById(1L))
-                .thenReturn(Optional.of(new User(1L, "Svatoslav", "slava@test.com")));
+                .thenReturn(Optional.of(new User(1L, "Svatoslav", "slava@test.com", null)));
         Mockito
-                .when(mockUserRepository.save(new User(1L, "Slava", "slava@test.com")))
-                .thenReturn(new User(1L, "Slava", "slava@test.com"));
+                .when(mockUserRepository.save(new User(1L, "Slava", "slava@test.com", null)))
+                .thenReturn(new User(1L, "Slava", "slava@test.com", null));
 
         UserDto userDto = UserDto.builder()
                 .name("Slava")
@@ -46,15 +46,15 @@ public class UserServiceImplUnitTest {
         Mockito.verify(mockUserRepository, Mockito.times(1))
                 .findById(1L);
         Mockito.verify(mockUserRepository, Mockito.times(1))
-                .save(new User(1L, "Slava", "slava@test.com"));
+                .save(new User(1L, "Slava", "slava@test.com", null));
     }
 
     @Test
     void testGetUserByIdIfUserExist() {
-        UserService userService = new UserServiceImpl(mockUserRepository);
+        UserService userService = new UserServiceImpl(mockUserRepository, new UserIdIndex(mockUserRepository));
         Mockito
                 .when(mockUserRepository.findById(1L))
-                .thenReturn(Optional.of(new User(1L, "Svatoslav", "slava@test.com")));
+                .thenReturn(Optional.of(new User(1L, "Svatoslav", "slava@test.com", null)));
 
         UserDto userDto = userService.getUserById(1L);
 
@@ -65,7 +65,7 @@ public class UserServiceImplUnitTest {
 
     @Test
     void testGetUserByIdIfUserDoesNotExist() {
-        UserService userService = new UserServiceImpl(mockUserRepository);
+        UserService userService = new UserServiceImpl(mockUserRepository, new UserIdIndex(mockUserRepository));
         Mockito
                 .when(mockUserRepository.findById(Mockito.anyLong()))
                 .thenReturn(Optional.empty());